@@ -33,6 +33,9 @@ import {
 } from '@mui/icons-material';
 import { useSnackbar } from '../context/SnackbarContext';
 
+// Rows fetched per request; the API pages with a cursor instead of returning whole tables
+const PAGE_SIZE = 100;
+
 const Admin = () => {
   const theme = useTheme();
   const [users, setUsers] = useState([]);
@@ -45,6 +48,8 @@ const Admin = () => {
   const [userPage, setUserPage] = useState(0);
   const [bookPage, setBookPage] = useState(0);
   const [loanPage, setLoanPage] = useState(0);
+  // Cursor for the next page of each list; null once everything is loaded
+  const [cursors, setCursors] = useState({ users: null, books: null, loans: null });
   const [userSearch, setUserSearch] = useState('');
   const [bookSearch, setBookSearch] = useState('');
   const [loanSearch, setLoanSearch] = useState('');
@@ -64,16 +69,21 @@ const Admin = () => {
     setLoading(true);
     try {
       const [usersRes, booksRes, loansRes] = await Promise.all([
-        axios.get('/api/users'),
-        axios.get('/api/books'),
-        axios.get('/api/admin/loans'),
+        axios.get('/api/users', { params: { limit: PAGE_SIZE } }),
+        axios.get('/api/books', { params: { limit: PAGE_SIZE } }),
+        axios.get('/api/admin/loans', { params: { limit: PAGE_SIZE } }),
       ]);
-      setUsers(usersRes.data);
-      setBooks(booksRes.data);
-      setLoans(loansRes.data);
-      setFilteredUsers(usersRes.data); // Initialize filtered state
-      setFilteredBooks(booksRes.data); // Initialize filtered state
-      setFilteredLoans(loansRes.data); // Initialize filtered state
+      setUsers(usersRes.data.items);
+      setBooks(booksRes.data.items);
+      setLoans(loansRes.data.items);
+      setFilteredUsers(usersRes.data.items); // Initialize filtered state
+      setFilteredBooks(booksRes.data.items); // Initialize filtered state
+      setFilteredLoans(loansRes.data.items); // Initialize filtered state
+      setCursors({
+        users: usersRes.data.nextCursor,
+        books: booksRes.data.nextCursor,
+        loans: loansRes.data.nextCursor,
+      });
     } catch (error) {
       console.error('Error fetching data:', error);
       showSnackbar('Failed to fetch admin data', 'error');
@@ -81,6 +91,18 @@ const Admin = () => {
     setLoading(false);
   };
 
+  const loadMore = async (key, url, setAll, setFiltered) => {
+    try {
+      const res = await axios.get(url, { params: { limit: PAGE_SIZE, cursor: cursors[key] } });
+      setAll(prev => [...prev, ...res.data.items]);
+      setFiltered(prev => [...prev, ...res.data.items]);
+      setCursors(prev => ({ ...prev, [key]: res.data.nextCursor }));
+    } catch (error) {
+      console.error('Error loading more data:', error);
+      showSnackbar('Failed to load more rows', 'error');
+    }
+  };
+
   const handleDeleteBook = async (id) => {
     if (!window.confirm('Are you sure you want to delete this book?')) return;
     try {
@@ -198,8 +220,8 @@ const Admin = () => {
 
   const filterLoans = (query) => {
     const filtered = loans.filter(loan =>
-      loan.book?.title?.toLowerCase().includes(query.toLowerCase()) ||
-      loan.user?.username?.toLowerCase().includes(query.toLowerCase()) ||
+      loan.bookTitle?.toLowerCase().includes(query.toLowerCase()) ||
+      loan.username?.toLowerCase().includes(query.toLowerCase()) ||
       loan.id?.toString().includes(query)
     );
     setFilteredLoans(filtered);
@@ -268,7 +290,7 @@ const Admin = () => {
     </Card>
   );
 
-  const EnhancedTable = ({ title, data, columns, page, onPageChange, icon: Icon, onAddBook }) => (
+  const EnhancedTable = ({ title, data, columns, page, onPageChange, icon: Icon, onAddBook, onLoadMore }) => (
     <Paper
       sx={{
         borderRadius: 4,
@@ -333,6 +355,11 @@ const Admin = () => {
         rowsPerPage={rowsPerPage}
         rowsPerPageOptions={[rowsPerPage]}
       />
+      {onLoadMore && (
+        <Box display="flex" justifyContent="center" pb={2}>
+          <Button variant="outlined" onClick={onLoadMore}>Load more</Button>
+        </Box>
+      )}
     </Paper>
   );
 
@@ -416,8 +443,8 @@ const Admin = () => {
 
   const loanColumns = [
     { field: 'id', headerName: 'ID' },
-    { field: 'book.title', headerName: 'Book', render: (row) => row.book?.title },
-    { field: 'user.username', headerName: 'User', render: (row) => row.user?.username },
+    { field: 'bookTitle', headerName: 'Book' },
+    { field: 'username', headerName: 'User' },
     { field: 'dueDate', headerName: 'Due Date', render: (row) => row.dueDate?.slice(0, 10) },
     {
       field: 'status',
@@ -465,21 +492,21 @@ const Admin = () => {
         >
           <StatCard
             title="Total Users"
-            value={users.length}
+            value={`${users.length}${cursors.users ? '+' : ''}`}
             icon={PersonIcon}
             color={'#3a5a80'}
             subtitle="Registered members"
           />
           <StatCard
             title="Total Books"
-            value={books.length}
+            value={`${books.length}${cursors.books ? '+' : ''}`}
             icon={BookIcon}
             color={'#2e7d32'}
             subtitle="In collection"
           />
           <StatCard
             title="Active Loans"
-            value={loans.filter(l => !l.returnDate).length}
+            value={`${loans.length}${cursors.loans ? '+' : ''}`}
             icon={AssignmentIcon}
             color={'#ed6c02'}
             subtitle="Currently borrowed"
@@ -494,6 +521,7 @@ const Admin = () => {
             page={userPage}
             onPageChange={setUserPage}
             icon={PersonIcon}
+            onLoadMore={cursors.users ? () => loadMore('users', '/api/users', setUsers, setFilteredUsers) : null}
           />
           <Box mt={4} width="100%">
             <EnhancedTable
@@ -504,6 +532,7 @@ const Admin = () => {
               onPageChange={setBookPage}
               icon={BookIcon}
               onAddBook={() => setAddBookModalOpen(true)}
+              onLoadMore={cursors.books ? () => loadMore('books', '/api/books', setBooks, setFilteredBooks) : null}
             />
           </Box>
           <Box mt={4} width="100%">
@@ -514,6 +543,7 @@ const Admin = () => {
               page={loanPage}
               onPageChange={setLoanPage}
               icon={AssignmentIcon}
+              onLoadMore={cursors.loans ? () => loadMore('loans', '/api/admin/loans', setLoans, setFilteredLoans) : null}
             />
           </Box>
         </Box>
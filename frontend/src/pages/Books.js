@@ -38,10 +38,14 @@ import BorrowDialog from '../components/BorrowDialog';
 
 export let refetchAverageRatings = () => {};
 
+// Books fetched per request; more are loaded on demand with the returned cursor
+const FETCH_SIZE = 200;
+
 const BookCatalog = () => {
   const [books, setBooks] = useState([]);
   const [filteredBooks, setFilteredBooks] = useState([]);
   const [searchQuery, setSearchQuery] = useState('');
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
   const { showSnackbar } = useSnackbar();
   const { user } = useContext(AuthContext);
@@ -62,9 +66,10 @@ const BookCatalog = () => {
   useEffect(() => {
     const fetchBooks = async () => {
       try {
-        const response = await axios.get('/api/books');
-        setBooks(response.data);
-        setFilteredBooks(response.data);
+        const response = await axios.get('/api/books', { params: { limit: FETCH_SIZE } });
+        setBooks(response.data.items);
+        setFilteredBooks(response.data.items);
+        setNextCursor(response.data.nextCursor);
         setLoading(false);
       } catch (error) {
         console.error(error);
@@ -98,6 +103,21 @@ const BookCatalog = () => {
     setFilteredBooks(filtered);
   }, [books]);
 
+  const handleLoadMore = async () => {
+    try {
+      const response = await axios.get('/api/books', { params: { limit: FETCH_SIZE, cursor: nextCursor } });
+      const loaded = [...books, ...response.data.items];
+      setBooks(loaded);
+      setNextCursor(response.data.nextCursor);
+      if (!searchQuery) {
+        setFilteredBooks(loaded);
+      }
+    } catch (error) {
+      console.error(error);
+      showSnackbar('Failed to fetch more books.', 'error');
+    }
+  };
+
   const handleFavoriteToggle = (bookId) => {
     const isFav = favorites.includes(bookId);
     const updatedFavs = isFav ? favorites.filter(id => id !== bookId) : [...favorites, bookId];
@@ -299,6 +319,11 @@ const BookCatalog = () => {
                 showLastButton
               />
             </Box>
+            {nextCursor && !searchQuery && (
+              <Box display="flex" justifyContent="center" mt={2}>
+                <Button variant="outlined" onClick={handleLoadMore}>Load more books</Button>
+              </Box>
+            )}
           </Box>
         </Fade>
       )}
@@ -4,8 +4,12 @@ import { Box, Typography, Grid, Card, CardContent, CardActions, Button, Circular
 import { refetchAverageRatings } from './Books';
 import { useSnackbar } from '../context/SnackbarContext';
 
+// Returned loans fetched per request, newest first
+const HISTORY_PAGE_SIZE = 20;
+
 const Loans = () => {
   const [loans, setLoans] = useState([]);
+  const [historyCursor, setHistoryCursor] = useState(null);
   const [loading, setLoading] = useState(true);
   const [ratingDialogOpen, setRatingDialogOpen] = useState(false);
   const [ratingLoan, setRatingLoan] = useState(null);
@@ -19,8 +23,12 @@ const Loans = () => {
   const fetchLoans = async () => {
     setLoading(true);
     try {
-      const res = await axios.get('/api/loans/my');
-      setLoans(res.data);
+      const [activeRes, historyRes] = await Promise.all([
+        axios.get('/api/loans/my'),
+        axios.get('/api/loans/my', { params: { status: 'returned', sort: '-id', limit: HISTORY_PAGE_SIZE } }),
+      ]);
+      setLoans([...activeRes.data.items, ...historyRes.data.items]);
+      setHistoryCursor(historyRes.data.nextCursor);
     } catch {
       setLoans([]);
       showSnackbar('Failed to fetch loans', 'error');
@@ -28,6 +36,18 @@ const Loans = () => {
     setLoading(false);
   };
 
+  const loadMoreHistory = async () => {
+    try {
+      const res = await axios.get('/api/loans/my', {
+        params: { status: 'returned', sort: '-id', limit: HISTORY_PAGE_SIZE, cursor: historyCursor },
+      });
+      setLoans(prev => [...prev, ...res.data.items]);
+      setHistoryCursor(res.data.nextCursor);
+    } catch {
+      showSnackbar('Failed to fetch loans', 'error');
+    }
+  };
+
   const handleReturn = async (loanId) => {
     try {
       await axios.post(`/api/loans/return/${loanId}`);
@@ -44,9 +64,9 @@ const Loans = () => {
   };
 
   const handleRatingSubmit = async () => {
-    if (!ratingLoan || !ratingLoan.book) return;
+    if (!ratingLoan || !ratingLoan.bookId) return;
     try {
-      await axios.post(`/api/ratings/${ratingLoan.book.id}?rating=${ratingValue}`);
+      await axios.post(`/api/ratings/${ratingLoan.bookId}?rating=${ratingValue}`);
       showSnackbar('Thank you for rating', 'success');
       if (typeof refetchAverageRatings === 'function') {
         refetchAverageRatings();
@@ -67,7 +87,7 @@ const Loans = () => {
             <Grid item xs={12} sm={6} md={4} lg={3} key={loan.id} display="flex" justifyContent="center">
               <Card sx={{ borderRadius: 4, background: '#fff', boxShadow: '0 1.5px 8px 0 rgba(60,72,88,0.06)', border: '1px solid #e5e7eb', width: 270, m: 1, p: 1, display: 'flex', flexDirection: 'column', justifyContent: 'space-between', minHeight: 220 }}>
                 <CardContent>
-                  <Typography variant="h6" fontWeight={600} color="primary.main" gutterBottom>{loan.book?.title}</Typography>
+                  <Typography variant="h6" fontWeight={600} color="primary.main" gutterBottom>{loan.bookTitle}</Typography>
                   <Typography variant="body2" color="text.secondary" fontWeight={400}>Due: {loan.dueDate?.slice(0, 10)}</Typography>
                   <Typography variant="body2" color="text.secondary" fontWeight={400}>Returned: {loan.returnDate ? loan.returnDate.slice(0, 10) : 'No'}</Typography>
                 </CardContent>
@@ -79,8 +99,11 @@ const Loans = () => {
           ))}
         </Grid>
       )}
+      {!loading && historyCursor && (
+        <Button variant="outlined" onClick={loadMoreHistory} sx={{ mt: 3, borderRadius: 3 }}>Show older loans</Button>
+      )}
       <Dialog open={ratingDialogOpen} onClose={() => setRatingDialogOpen(false)} PaperProps={{ sx: { borderRadius: 3, p: 2, minWidth: 350 } }}>
-        <DialogTitle sx={{ fontWeight: 700, fontSize: 22, pb: 0 }}>Rate "{ratingLoan?.book?.title}"</DialogTitle>
+        <DialogTitle sx={{ fontWeight: 700, fontSize: 22, pb: 0 }}>Rate "{ratingLoan?.bookTitle}"</DialogTitle>
         <DialogContent sx={{ pt: 2, pb: 0 }}>
           <Typography variant="body1" sx={{ mb: 2 }}>How would you rate this book?</Typography>
           <MuiRating
@@ -4,7 +4,6 @@ import { Box, Typography, Grid, Card, CardContent, CardActions, Button, Circular
 import { AuthContext } from '../context/AuthContext';
 import { useSnackbar } from '../context/SnackbarContext';
 import PersonIcon from '@mui/icons-material/Person';
-import BusinessIcon from '@mui/icons-material/Business';
 import BarcodeIcon from '@mui/icons-material/QrCode2';
 import Inventory2Icon from '@mui/icons-material/Inventory2';
 import BorrowDialog from '../components/BorrowDialog';
@@ -59,17 +58,8 @@ const PopularBooks = () => {
     const fetchPopularBooks = async () => {
       try {
         const res = await axios.get('/api/books/popular');
-        const titles = res.data;
-        // Fetch full book details for each title using Promise.allSettled
-        const bookDetailsResults = await Promise.allSettled(
-          titles.map(async (title) => {
-            const resp = await axios.get(`/api/books?title=${encodeURIComponent(title)}`);
-            return resp.data && resp.data.length > 0 ? resp.data[0] : null;
-          })
-        );
-        const bookDetails = bookDetailsResults
-          .filter(result => result.status === 'fulfilled' && result.value)
-          .map(result => result.value);
+        // Each entry is already a complete book card
+        const bookDetails = res.data;
         setBooks(bookDetails);
         if (bookDetails.length === 0) {
           showSnackbar('Failed to fetch popular books', 'error');
@@ -140,21 +130,24 @@ const PopularBooks = () => {
                     <PersonIcon fontSize="inherit" sx={{ verticalAlign: 'middle', mr: 0.5 }} />
                     {book.author}
                   </Typography>
-                  <Typography variant="body2" color="text.secondary" sx={{ mt: 0.5, fontWeight: 400 }}>
-                    <BusinessIcon fontSize="inherit" sx={{ verticalAlign: 'middle', mr: 0.5 }} />
-                    {book.publisher}
-                  </Typography>
                   <Typography variant="body2" color="text.secondary" sx={{ mt: 0.5, fontWeight: 400 }}>
                     <BarcodeIcon fontSize="inherit" sx={{ verticalAlign: 'middle', mr: 0.5 }} />
                     ISBN: {book.isbn}
                   </Typography>
                   <Chip
                     icon={<Inventory2Icon />}
-                    label={`${book.availableCopies} / ${book.totalCopies} available`}
+                    label={`${book.availableCopies} available`}
                     color={book.availableCopies > 0 ? 'success' : 'default'}
                     size="small"
                     sx={{ mt: 1, fontWeight: 500, background: '#f7f7fa', color: 'primary.main' }}
                   />
+                  <Rating
+                    value={typeof book.avgRating === 'number' ? book.avgRating : 0}
+                    precision={0.5}
+                    readOnly
+                    size="small"
+                    sx={{ mt: 1, color: 'primary.main' }}
+                  />
                 </CardContent>
                 <CardActions sx={{ justifyContent: 'space-between', px: 2, pb: 2 }}>
                   <Button fullWidth variant="contained" color="primary" sx={{ fontWeight: 500, borderRadius: 3 }}
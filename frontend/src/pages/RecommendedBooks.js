@@ -4,7 +4,6 @@ import { Box, Typography, TextField, Button, Grid, Card, CardContent, CardAction
 import { AuthContext } from '../context/AuthContext';
 import { useSnackbar } from '../context/SnackbarContext';
 import PersonIcon from '@mui/icons-material/Person';
-import BusinessIcon from '@mui/icons-material/Business';
 import BarcodeIcon from '@mui/icons-material/QrCode2';
 import Inventory2Icon from '@mui/icons-material/Inventory2';
 import BorrowDialog from '../components/BorrowDialog';
@@ -68,15 +67,8 @@ const RecommendedBooks = () => {
       const isbn = book.isbn;
       // Fetch recommendations using the found ISBN
       const res = await axios.get(`/api/books/${isbn}/recommendations/content-based`);
-      const titles = res.data;
-      // Fetch full book details for each title
-      const bookDetails = await Promise.all(
-        titles.map(async (recTitle) => {
-          const resp = await axios.get(`/api/books?title=${encodeURIComponent(recTitle)}`);
-          return resp.data && resp.data.length > 0 ? resp.data[0] : null;
-        })
-      );
-      setRecommendations(bookDetails.filter(Boolean));
+      // Each entry is already a complete book card
+      setRecommendations(res.data);
     } catch (err) {
       showSnackbar('Could not fetch recommendations.', 'error');
       setRecommendations([]);
@@ -151,23 +143,20 @@ const RecommendedBooks = () => {
                   <PersonIcon fontSize="inherit" sx={{ verticalAlign: 'middle', mr: 0.5 }} />
                   {book.author}
                 </Typography>
-                <Typography variant="body2" color="text.secondary" sx={{ mt: 0.5, fontWeight: 400 }}>
-                  <BusinessIcon fontSize="inherit" sx={{ verticalAlign: 'middle', mr: 0.5 }} />
-                  {book.publisher}
-                </Typography>
                 <Typography variant="body2" color="text.secondary" sx={{ mt: 0.5, fontWeight: 400 }}>
                   <BarcodeIcon fontSize="inherit" sx={{ verticalAlign: 'middle', mr: 0.5 }} />
                   ISBN: {book.isbn}
                 </Typography>
                 <Chip
                   icon={<Inventory2Icon />}
-                  label={`${book.availableCopies} / ${book.totalCopies} available`}
+                  label={`${book.availableCopies} available`}
                   color={book.availableCopies > 0 ? 'success' : 'default'}
                   size="small"
                   sx={{ mt: 1, fontWeight: 500, background: '#f7f7fa', color: 'primary.main' }}
                 />
                 <Rating
-                  value={typeof book.rating === 'number' ? book.rating : 0}
+                  value={typeof book.avgRating === 'number' ? book.avgRating : 0}
+                  precision={0.5}
                   readOnly
                   size="small"
                   sx={{ mt: 1, color: 'primary.main' }}
@@ -0,0 +1,138 @@
+package com.example.Library_Management.client;
+
+import com.example.Library_Management.exception.RecommendationUnavailableException;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Client for the Python recommendation service.
+ * <p>
+ * Responses are cached per ISBN. Concurrent requests for the same ISBN share one in-flight call,
+ * and once an entry is older than the refresh interval it is still served while a background
+ * reload runs (stale-while-revalidate); a failed reload keeps the old value until it expires.
+ * Calls go through a circuit breaker so a dead backend is not hit on every request.
+ */
+@Slf4j
+@Component
+public class RecommendationClient {
+
+    private static final ParameterizedTypeReference<List<String>> TITLES = new ParameterizedTypeReference<>() {
+    };
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Value("${python.api.url:http://localhost:8000}")
+    private String baseUrl;
+
+    @Value("${recommendation.client.read-timeout-ms:2000}")
+    private long readTimeoutMillis;
+
+    @Value("${recommendation.client.circuit.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${recommendation.client.circuit.open-ms:30000}")
+    private long openMillis;
+
+    @Value("${recommendation.client.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${recommendation.client.cache.refresh-after-write:10m}")
+    private Duration refreshAfterWrite;
+
+    @Value("${recommendation.client.cache.expire-after-write:6h}")
+    private Duration expireAfterWrite;
+
+    @Value("${recommendation.client.max-concurrent-calls:8}")
+    private int maxConcurrentCalls;
+
+    private CircuitBreaker circuitBreaker;
+    private ExecutorService executor;
+    private AsyncLoadingCache<String, List<String>> contentBasedCache;
+
+    @PostConstruct
+    public void init() {
+        circuitBreaker = new CircuitBreaker(failureThreshold, openMillis);
+        executor = new ThreadPoolExecutor(maxConcurrentCalls, maxConcurrentCalls, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(maxConcurrentCalls * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "recommendation-client");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        contentBasedCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .refreshAfterWrite(refreshAfterWrite)
+                .expireAfterWrite(expireAfterWrite)
+                .executor(executor)
+                .buildAsync((isbn, loadExecutor) -> CompletableFuture.supplyAsync(
+                        () -> call("/content-based/" + isbn), loadExecutor));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public List<String> getContentBased(String isbn) {
+        try {
+            // Bound the wait even if the executor queue is backed up
+            return contentBasedCache.get(isbn).get(readTimeoutMillis * 2, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RecommendationUnavailableException unavailable) {
+                throw unavailable;
+            }
+            throw new RecommendationUnavailableException("Recommendation service call failed", cause);
+        } catch (TimeoutException e) {
+            throw new RecommendationUnavailableException("Recommendation service timed out", e);
+        } catch (RejectedExecutionException e) {
+            throw new RecommendationUnavailableException("Too many recommendation calls in flight", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RecommendationUnavailableException("Interrupted waiting for recommendations", e);
+        }
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private List<String> call(String path) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new RecommendationUnavailableException("Recommendation service circuit is open");
+        }
+        try {
+            List<String> body = restTemplate.exchange(baseUrl + path, HttpMethod.GET, null, TITLES).getBody();
+            circuitBreaker.onSuccess();
+            return body == null ? List.of() : body;
+        } catch (HttpClientErrorException e) {
+            // The backend answered; a 4xx says nothing about its health
+            circuitBreaker.onSuccess();
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                return List.of();
+            }
+            throw new RecommendationUnavailableException("Recommendation service rejected " + path, e);
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            log.warn("Recommendation service call {} failed: {}", path, e.getMessage());
+            throw new RecommendationUnavailableException("Recommendation service call failed", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.Library_Management.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.security.Principal;
+
+/**
+ * Principal set by {@link JwtAuthenticationFilter}. Carries the user id so controllers and
+ * {@code @PreAuthorize} expressions such as {@code #id == principal.id} need no user lookup.
+ */
+@Getter
+@AllArgsConstructor
+public class AuthenticatedUser implements Principal {
+    private final Long id;
+    private final String username;
+    private final String role;
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.Library_Management.config;
 
+import com.example.Library_Management.service.UserService;
 import com.example.Library_Management.util.JwtUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -15,34 +16,33 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private UserService userService;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
-        String username = null;
-        String jwt = null;
-
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7);
-            try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception e) {
-                // Invalid token
-            }
-        }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtUtil.validateToken(jwt, username)) {
-                String role = jwtUtil.extractRole(jwt);
-                SimpleGrantedAuthority authority = new SimpleGrantedAuthority(role);
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // One verification per token; repeat requests with the same token hit the cache
+            JwtUtil.TokenClaims claims = jwtUtil.verify(authHeader.substring(7));
+            Long userId = claims == null ? null
+                    : claims.userId() != null ? claims.userId() : userService.findUserIdByUsername(claims.username());
+            if (userId != null) {
+                AuthenticatedUser principal = new AuthenticatedUser(userId, claims.username(), claims.role());
+                List<SimpleGrantedAuthority> authorities = claims.role() == null
+                        ? List.of() : Collections.singletonList(new SimpleGrantedAuthority(claims.role()));
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        username, null, Collections.singletonList(authority));
+                        principal, null, authorities);
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
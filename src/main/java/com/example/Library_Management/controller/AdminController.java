@@ -1,20 +1,28 @@
 package com.example.Library_Management.controller;
 
+import com.example.Library_Management.dto.CursorPage;
 import com.example.Library_Management.dto.EmailRequest;
 import com.example.Library_Management.dto.LoanRequest;
+import com.example.Library_Management.dto.LoanView;
+import com.example.Library_Management.dto.NotificationReport;
+import com.example.Library_Management.exception.ResourceNotFoundException;
 import com.example.Library_Management.model.Book;
 import com.example.Library_Management.model.Loan;
 import com.example.Library_Management.service.BookService;
-import com.example.Library_Management.service.DataIngestionService;
 import com.example.Library_Management.service.EmailService;
+import com.example.Library_Management.service.IngestionJobService;
 import com.example.Library_Management.service.LoanService;
+import com.example.Library_Management.service.OverdueNotificationService;
+import com.example.Library_Management.service.RatingAggregateService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 @PreAuthorize("hasRole('ROLE_ADMIN')")
 @RestController
 @RequestMapping("/api/admin")
@@ -28,7 +36,13 @@ public class AdminController {
     private LoanService loanService;
 
     @Autowired
-    private DataIngestionService dataIngestionService;
+    private IngestionJobService ingestionJobService;
+
+    @Autowired
+    private RatingAggregateService ratingAggregateService;
+
+    @Autowired
+    private OverdueNotificationService overdueNotificationService;
 
     @PostMapping("/books")
     public ResponseEntity<?> createBook(@RequestBody Book book) {
@@ -60,20 +74,15 @@ public class AdminController {
         if (!isValidYear(updatedBook.getYear())) {
             return ResponseEntity.badRequest().body("Year must be a 4-digit number between 1000 and the current year.");
         }
+        if (updatedBook.getTotalCopies() == null || updatedBook.getTotalCopies() <= 0) {
+            return ResponseEntity.badRequest().body("Invalid book data");
+        }
         try {
-            Book book = bookService.getBookById(id);
-            // Update fields
-            book.setTitle(updatedBook.getTitle());
-            book.setAuthor(updatedBook.getAuthor());
-            book.setIsbn(updatedBook.getIsbn());
-            book.setYear(updatedBook.getYear());
-            book.setPublisher(updatedBook.getPublisher());
-            book.setTotalCopies(updatedBook.getTotalCopies());
-            // Adjust availableCopies if totalCopies changed
-            int diff = updatedBook.getTotalCopies() - book.getTotalCopies();
-            book.setAvailableCopies(book.getAvailableCopies() + diff);
-            Book savedBook = bookService.save(book);
+            // Available copies move with the total in the database, never from this request
+            Book savedBook = bookService.updateBook(id, updatedBook);
             return ResponseEntity.ok(savedBook);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Book not found");
         } catch (Exception e) {
@@ -90,9 +99,31 @@ public class AdminController {
         return year >= 1000 && year <= currentYear;
     }
 
+    /**
+     * Loans in keyset pages. {@code status} is active (the default), returned, overdue or all;
+     * {@code sort} is id, loanDate or dueDate, prefixed with - for descending.
+     */
     @GetMapping("/loans")
-    public List<Loan> getAllActiveLoans() {
-        return loanService.getActiveLoans();
+    public CursorPage<LoanView> getLoans(@RequestParam(defaultValue = "active") String status,
+                                     @RequestParam(required = false) Long userId,
+                                     @RequestParam(required = false) Long bookId,
+                                     @RequestParam(required = false) String sort,
+                                     @RequestParam(required = false) String cursor,
+                                     @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > 500) {
+            throw new IllegalArgumentException("Limit must be between 1 and 500");
+        }
+        return loanService.listLoans(status, userId, bookId, sort, cursor, limit);
+    }
+
+    @GetMapping(value = "/loans", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamLoans(@RequestParam(defaultValue = "active") String status,
+                                                             @RequestParam(required = false) Long userId,
+                                                             @RequestParam(required = false) Long bookId,
+                                                             @RequestParam(required = false) String sort) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(loanService.streamLoans(status, userId, bookId, sort));
     }
 
     @PostMapping("/lend")
@@ -102,15 +133,15 @@ public class AdminController {
         }
         try {
             Loan loan = loanService.lendBook(request.getBookId(), request.getUserId(), request.getDurationDays());
-            return ResponseEntity.ok(loan);
+            return ResponseEntity.ok(LoanView.of(loan));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to lend book: " + e.getMessage());
         }
     }
 
     @PostMapping("/return/{loanId}")
-    public Loan returnBook(@PathVariable Long loanId) {
-        return loanService.returnBook(loanId);
+    public LoanView returnBook(@PathVariable Long loanId) {
+        return LoanView.of(loanService.returnBook(loanId));
     }
 
     @Autowired
@@ -124,27 +155,88 @@ public class AdminController {
             return ResponseEntity.badRequest().body("Invalid email request");
         }
         try {
+            // Stored in the outbox and delivered in the background
             emailService.sendEmail(emailRequest.getTo(), emailRequest.getSubject(), emailRequest.getBody());
-            return ResponseEntity.ok("Email sent successfully!");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body("Email queued for delivery.");
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to send email: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to queue email: " + e.getMessage());
         }
     }
 
     @PostMapping("/data/ingest")
-    public ResponseEntity<String> ingestData(@RequestParam String dataPath) {
+    public ResponseEntity<?> ingestData(@RequestParam String dataPath) {
         try {
-            dataIngestionService.ingestData(dataPath);
-            return ResponseEntity.ok("Data ingestion completed.");
+            return ResponseEntity.accepted().body(ingestionJobService.submit(dataPath));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("Failed to ingest data: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Failed to ingest data: " + e.getMessage());
         }
     }
 
+    @GetMapping("/data/ingest/{jobId}")
+    public ResponseEntity<?> getIngestionStatus(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.ok(ingestionJobService.getStatus(jobId));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/data/ingest/{jobId}/cancel")
+    public ResponseEntity<?> cancelIngestion(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.ok(ingestionJobService.cancel(jobId));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/data/ingest/{jobId}/resume")
+    public ResponseEntity<?> resumeIngestion(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.accepted().body(ingestionJobService.resume(jobId));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/ratings/aggregates/rebuild")
+    public ResponseEntity<String> rebuildRatingAggregates() {
+        int books = ratingAggregateService.rebuild();
+        return ResponseEntity.ok("Rebuilt rating aggregates for " + books + " books.");
+    }
+
+    /**
+     * Starts sending overdue digests in the background and returns the new run's report; while a
+     * run is in progress, returns that run's report with 409 instead.
+     */
     @PostMapping("/notify-overdue")
-    public ResponseEntity<String> notifyOverdueLoans() {
-        loanService.checkAndNotifyOverdueLoans();
-        return ResponseEntity.ok("Overdue notifications sent (if any overdue loans exist).");
+    public ResponseEntity<NotificationReport> notifyOverdueLoans() {
+        NotificationReport report = overdueNotificationService.start();
+        if (report == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(overdueNotificationService.getLastReport());
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(report);
+    }
+
+    @GetMapping("/notify-overdue")
+    public ResponseEntity<NotificationReport> getOverdueNotificationReport() {
+        NotificationReport report = overdueNotificationService.getLastReport();
+        return report == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(report);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
     }
 }
@@ -1,45 +1,158 @@
 package com.example.Library_Management.controller;
 
+import com.example.Library_Management.dto.BookCard;
+import com.example.Library_Management.dto.CursorPage;
 import com.example.Library_Management.model.Book;
 import com.example.Library_Management.service.BookService;
+import com.example.Library_Management.service.CatalogSnapshotService;
 import com.example.Library_Management.service.RecommendationService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/books")
 @CrossOrigin(origins = "http://localhost:3000/")
 public class BookController {
 
+    private static final int MAX_LIMIT = 500;
+
     @Autowired
     private BookService bookService;
 
     @Autowired
     private RecommendationService recommendationService;
 
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
 
+    /**
+     * Books in pages of {@code limit}; pass the returned {@code nextCursor} as {@code cursor} for
+     * the next page. {@code sort} is id or title, prefixed with - for descending.
+     */
     @GetMapping
-    public List<Book> getAllBooks(@RequestParam(required = false) String title) {
-        if (title != null && title.trim().isEmpty()) {
+    public CursorPage<Book> getBooks(@RequestParam(required = false) String author,
+                                     @RequestParam(required = false) String publisher,
+                                     @RequestParam(required = false) Boolean available,
+                                     @RequestParam(required = false) String sort,
+                                     @RequestParam(required = false) String cursor,
+                                     @RequestParam(defaultValue = "50") int limit,
+                                     WebRequest request, HttpServletResponse response) {
+        // A page only changes when some book does, so the catalog version plus the query tags it
+        String etag = '"' + catalogSnapshotService.versionTag() + "-"
+                + Integer.toHexString(Objects.hash(author, publisher, available, sort, cursor, limit)) + '"';
+        // Lets browsers keep the page and revalidate it instead of the default no-store
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return bookService.listBooks(author, publisher, available, sort, cursor, limit(limit));
+    }
+
+    /**
+     * The whole catalog as one JSON array, served from a prebuilt snapshot (gzipped when the client
+     * accepts it). Send the returned ETag as If-None-Match to get 304 while nothing has changed.
+     */
+    @GetMapping("/catalog")
+    public ResponseEntity<byte[]> getCatalog(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                             WebRequest request) {
+        CatalogSnapshotService.Snapshot snapshot = catalogSnapshotService.current();
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        // Each encoding is its own representation, so it gets its own strong tag
+        String etag = gzip ? snapshot.etag().replaceFirst("\"$", "-gz\"") : snapshot.etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return response.body(snapshot.json());
+    }
+
+    /**
+     * Every matching book as one JSON array, written while it is read from the database.
+     */
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamBooks(@RequestParam(required = false) String author,
+                                                             @RequestParam(required = false) String publisher,
+                                                             @RequestParam(required = false) Boolean available,
+                                                             @RequestParam(required = false) String sort) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(bookService.streamBooks(author, publisher, available, sort));
+    }
+
+    @GetMapping(params = "title")
+    public List<Book> searchByTitle(@RequestParam String title, @RequestParam(defaultValue = "50") int limit) {
+        if (title.trim().isEmpty()) {
             throw new IllegalArgumentException("Title parameter cannot be empty");
         }
-        return title != null ? bookService.searchBooks(title) : bookService.getAllBooks();
+        return bookService.searchBooks(title, limit(limit));
+    }
+
+    @GetMapping("/search")
+    public List<Book> searchBooks(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        if (q.trim().isEmpty()) {
+            throw new IllegalArgumentException("Query parameter cannot be empty");
+        }
+        return bookService.searchByText(q, limit(limit));
+    }
+
+    @GetMapping("/autocomplete")
+    public List<String> autocomplete(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+        if (prefix.trim().isEmpty()) {
+            return List.of();
+        }
+        return bookService.autocompleteTitles(prefix, limit(limit));
     }
 
     @GetMapping("/popular")
-    public List<String> getPopularBooks() {
-        return recommendationService.getPopularBooks();
+    public List<BookCard> getPopularBooks(@RequestParam(defaultValue = "all") String window) {
+        return recommendationService.getPopularBooks(window);
     }
 
     @GetMapping("/{isbn}/recommendations/content-based")
-    public List<String> getContentBasedRecommendations(@PathVariable String isbn) {
+    public List<BookCard> getContentBasedRecommendations(@PathVariable String isbn) {
         return recommendationService.getContentBasedRecommendations(isbn);
     }
 
+    @GetMapping("/{id}/recommendations/also-borrowed")
+    public List<BookCard> getAlsoBorrowed(@PathVariable Long id, @RequestParam(defaultValue = "8") int limit) {
+        return recommendationService.getAlsoBorrowed(id, limit(limit));
+    }
+
     @DeleteMapping("/{id}")
     public void deleteBook(@PathVariable Long id) {
         bookService.deleteBook(id);
     }
+
+    /**
+     * Bad filters, sorts, cursors and limits are the client's mistake.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    private static int limit(int requested) {
+        if (requested < 1 || requested > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return requested;
+    }
 }
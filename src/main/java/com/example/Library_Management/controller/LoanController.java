@@ -1,35 +1,31 @@
 package com.example.Library_Management.controller;
 
-import com.example.Library_Management.model.Loan;
-import com.example.Library_Management.model.User;
+import com.example.Library_Management.config.AuthenticatedUser;
+import com.example.Library_Management.dto.CursorPage;
+import com.example.Library_Management.dto.LoanView;
 import com.example.Library_Management.service.LoanService;
-import com.example.Library_Management.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/loans")
 @CrossOrigin(origins = "http://localhost:3000/")
 public class LoanController {
     @Autowired
     private LoanService loanService;
-    @Autowired
-    private UserService userService;
 
     @PostMapping("/borrow/{bookId}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<Loan> borrowBook(@PathVariable Long bookId, @RequestParam(defaultValue = "2") int durationDays, Principal principal) {
+    public ResponseEntity<LoanView> borrowBook(@PathVariable Long bookId, @RequestParam(defaultValue = "2") int durationDays,
+                                               @AuthenticationPrincipal AuthenticatedUser principal) {
         if (durationDays <= 0) {
             return ResponseEntity.badRequest().build();
         }
         try {
-            Long userId = userService.getUserByUsername(principal.getName()).getId();
-            return ResponseEntity.ok(loanService.lendBook(bookId, userId, durationDays));
+            return ResponseEntity.ok(LoanView.of(loanService.lendBook(bookId, principal.getId(), durationDays)));
         } catch (Exception e) {
             return ResponseEntity.status(500).build();
         }
@@ -37,14 +33,12 @@ public class LoanController {
 
     @PostMapping("/return/{loanId}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<Loan> returnBook(@PathVariable Long loanId, Principal principal) {
+    public ResponseEntity<LoanView> returnBook(@PathVariable Long loanId, @AuthenticationPrincipal AuthenticatedUser principal) {
         try {
-            Long userId = userService.getUserByUsername(principal.getName()).getId();
-            Loan loan = loanService.getLoanById(loanId);
-            if (!loan.getUser().getId().equals(userId)) {
+            if (!principal.getId().equals(loanService.getLoanUserId(loanId))) {
                 return ResponseEntity.status(403).build();
             }
-            return ResponseEntity.ok(loanService.returnBook(loanId));
+            return ResponseEntity.ok(LoanView.of(loanService.returnBook(loanId)));
         } catch (Exception e) {
             return ResponseEntity.status(500).build();
         }
@@ -52,10 +46,18 @@ public class LoanController {
 
     @GetMapping("/my")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<Loan>> getMyLoans(Principal principal) {
+    public ResponseEntity<CursorPage<LoanView>> getMyLoans(@RequestParam(defaultValue = "active") String status,
+                                                           @RequestParam(required = false) String sort,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "50") int limit,
+                                                           @AuthenticationPrincipal AuthenticatedUser principal) {
+        if (limit < 1 || limit > 500) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            Long userId = userService.getUserByUsername(principal.getName()).getId();
-            return ResponseEntity.ok(loanService.getLoansByUser(userId));
+            return ResponseEntity.ok(loanService.getLoansByUser(principal.getId(), status, sort, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(500).build();
         }
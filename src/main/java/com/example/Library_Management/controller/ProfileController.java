@@ -1,13 +1,14 @@
 package com.example.Library_Management.controller;
 
+import com.example.Library_Management.config.AuthenticatedUser;
+import com.example.Library_Management.dto.UserView;
 import com.example.Library_Management.model.User;
 import com.example.Library_Management.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
-
-import java.security.Principal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,9 +25,9 @@ public class ProfileController {
     // Fetch authenticated user's profile
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<User> getProfile(Principal principal) {
+    public ResponseEntity<UserView> getProfile(@AuthenticationPrincipal AuthenticatedUser principal) {
         logger.info("/api/profile called by principal: {}", principal.getName());
-        User user = userService.getUserByUsername(principal.getName());
+        UserView user = UserView.of(userService.getUserById(principal.getId()));
         logger.info("User fetched: {}", user);
         return ResponseEntity.ok(user);
     }
@@ -34,8 +35,8 @@ public class ProfileController {
     // Update authenticated user's profile
     @PutMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<User> updateProfile(@RequestBody User updatedUser, Principal principal) {
-        User currentUser = userService.getUserByUsername(principal.getName());
+    public ResponseEntity<UserView> updateProfile(@RequestBody User updatedUser, @AuthenticationPrincipal AuthenticatedUser principal) {
+        User currentUser = userService.getUserById(principal.getId());
         // Only allow updating fullName, email, and password
         currentUser.setFullName(updatedUser.getFullName());
         currentUser.setEmail(updatedUser.getEmail());
@@ -43,6 +44,6 @@ public class ProfileController {
             currentUser.setPassword(updatedUser.getPassword());
         }
         User savedUser = userService.updateUser(currentUser.getId(), currentUser);
-        return ResponseEntity.ok(savedUser);
+        return ResponseEntity.ok(UserView.of(savedUser));
     }
 } 
\ No newline at end of file
@@ -1,10 +1,12 @@
 package com.example.Library_Management.controller;
 
+import com.example.Library_Management.config.AuthenticatedUser;
 import com.example.Library_Management.model.Rating;
 import com.example.Library_Management.service.RatingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @PreAuthorize("isAuthenticated()")
@@ -17,18 +19,28 @@ public class RatingController {
 
     @PostMapping("/{bookId}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<?> rateBook(@PathVariable Long bookId, @RequestParam Integer rating) {
+    public ResponseEntity<?> rateBook(@PathVariable Long bookId, @RequestParam Integer rating,
+                                      @AuthenticationPrincipal AuthenticatedUser principal) {
         if (rating == null || rating < 1 || rating > 5) {
             return ResponseEntity.badRequest().body("Rating must be between 1 and 5");
         }
         try {
-            Rating savedRating = ratingService.rateBook(bookId, rating);
-            return ResponseEntity.ok(savedRating);
+            Rating savedRating = ratingService.rateBook(principal.getId(), bookId, rating);
+            // Buffered ratings are written shortly afterwards, so they have no id yet
+            return savedRating.getId() == null ? ResponseEntity.accepted().body(savedRating) : ResponseEntity.ok(savedRating);
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Failed to rate book: " + e.getMessage());
         }
     }
 
+    /**
+     * The caller's own rating of the book, or 404 if they have not rated it.
+     */
+    @GetMapping("/{bookId}")
+    public ResponseEntity<Rating> getMyRating(@PathVariable Long bookId, @AuthenticationPrincipal AuthenticatedUser principal) {
+        return ResponseEntity.of(ratingService.getBookRating(principal.getId(), bookId));
+    }
+
     @GetMapping("/averages")
     public ResponseEntity<java.util.Map<Long, Double>> getAverageRatingsForAllBooks() {
         return ResponseEntity.ok(ratingService.getAverageRatingsForAllBooks());
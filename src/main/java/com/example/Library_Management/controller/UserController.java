@@ -1,14 +1,20 @@
 package com.example.Library_Management.controller;
 
+import com.example.Library_Management.dto.CursorPage;
 import com.example.Library_Management.model.User;
 import com.example.Library_Management.service.UserService;
 import com.example.Library_Management.dto.LoginRequest;
 import com.example.Library_Management.dto.RegisterRequest;
+import com.example.Library_Management.dto.UserView;
+import com.example.Library_Management.exception.ServiceBusyException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.regex.Pattern;
 
 @RestController
@@ -36,7 +42,7 @@ public class UserController {
             return ResponseEntity.badRequest().body("Password must be at least 6 characters, contain at least one letter and one number.");
         }
         try {
-            return ResponseEntity.ok(userService.register(request));
+            return ResponseEntity.ok(UserView.of(userService.register(request)));
         } catch (RuntimeException e) {
             String msg = e.getMessage();
             if (msg != null && msg.contains("Username already exists")) {
@@ -52,19 +58,24 @@ public class UserController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest request) {
         if (request.getUsername() == null || request.getUsername().isEmpty() ||
             request.getPassword() == null || request.getPassword().isEmpty()) {
-            return ResponseEntity.badRequest().body("Username and password are required.");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Username and password are required."));
         }
         if (!PASSWORD_PATTERN.matcher(request.getPassword()).matches()) {
-            return ResponseEntity.badRequest().body("Password must be at least 6 characters, contain at least one letter and one number.");
-        }
-        try {
-            return ResponseEntity.ok(userService.login(request));
-        } catch (Exception e) {
-            return ResponseEntity.status(401).body("Login failed: " + e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Password must be at least 6 characters, contain at least one letter and one number."));
         }
+        // The request thread is released while the password is checked on the hashing pool
+        return userService.login(request)
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof ServiceBusyException) {
+                        return ResponseEntity.status(503).header("Retry-After", "1").body("Login is busy, please try again shortly.");
+                    }
+                    return ResponseEntity.status(401).body("Login failed: " + cause.getMessage());
+                });
     }
 
     @DeleteMapping("/{id}")
@@ -76,7 +87,27 @@ public class UserController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<User>> listUsers() {
-        return ResponseEntity.ok(userService.listUsers());
+    public ResponseEntity<CursorPage<UserView>> listUsers(@RequestParam(required = false) String role,
+                                                      @RequestParam(required = false) String sort,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > 500) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(userService.listUsers(role, sort, cursor, limit));
+    }
+
+    @GetMapping(params = "stream=true")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamUsers(@RequestParam(required = false) String role,
+                                                             @RequestParam(required = false) String sort) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(userService.streamUsers(role, sort));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
     }
-} 
\ No newline at end of file
+}
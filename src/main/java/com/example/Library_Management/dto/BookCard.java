@@ -0,0 +1,24 @@
+package com.example.Library_Management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What a recommendation list shows for each book, so the page needs no follow-up lookups.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookCard {
+    private Long id;
+    private String isbn;
+    private String title;
+    private String author;
+    private Integer availableCopies;
+    private Double avgRating;
+
+    public BookCard(Long id, String isbn, String title, String author, Integer availableCopies) {
+        this(id, isbn, title, author, availableCopies, null);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.Library_Management.dto;
+
+import lombok.Data;
+
+@Data
+public class IngestionReport {
+    private Long jobId;
+    private String filePath;
+    private String status;
+    private long linesRead;
+    private long booksInserted;
+    private long ratingsInserted;
+    private long rejected;
+    private long bytesProcessed;
+    private long totalBytes;
+    private double percentComplete;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private Long etaSeconds; // Null when not running or not yet measurable
+    private String error;
+}
@@ -0,0 +1,55 @@
+package com.example.Library_Management.dto;
+
+import com.example.Library_Management.model.Loan;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * What the loan screens show. Used as a closed projection, so Spring Data selects just these
+ * columns, joining book and user for their id, title and username in the same query.
+ */
+public interface LoanView {
+    Long getId();
+
+    LocalDateTime getLoanDate();
+
+    LocalDateTime getDueDate();
+
+    LocalDateTime getReturnDate();
+
+    Long getBookId();
+
+    String getBookTitle();
+
+    Long getUserId();
+
+    @JsonProperty("username")
+    String getUserUsername();
+
+    /**
+     * The same view of a loan already in memory, e.g. one just lent or returned.
+     */
+    static LoanView of(Loan loan) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", loan.getId());
+        values.put("loanDate", loan.getLoanDate());
+        values.put("dueDate", loan.getDueDate());
+        values.put("returnDate", loan.getReturnDate());
+        values.put("bookId", loan.getBook().getId());
+        values.put("bookTitle", loan.getBook().getTitle());
+        values.put("userId", loan.getUser().getId());
+        values.put("userUsername", loan.getUser().getUsername());
+        return Projections.FACTORY.createProjection(LoanView.class, values);
+    }
+
+    final class Projections {
+        static final SpelAwareProxyProjectionFactory FACTORY = new SpelAwareProxyProjectionFactory();
+
+        private Projections() {
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.Library_Management.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class NotificationReport {
+    private String status;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long overdueLoans;
+    private long digestsQueued;
+    private long usersWithoutEmail;
+    private long elapsedMillis;
+    private double digestsPerSecond;
+    private String error;
+}
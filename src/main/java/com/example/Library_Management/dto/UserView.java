@@ -0,0 +1,24 @@
+package com.example.Library_Management.dto;
+
+import com.example.Library_Management.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A user as returned by the API: everything but the password hash.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserView {
+    private Long id;
+    private String username;
+    private String fullName;
+    private String email;
+    private String role;
+
+    public static UserView of(User user) {
+        return new UserView(user.getId(), user.getUsername(), user.getFullName(), user.getEmail(), user.getRole());
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.Library_Management.exception;
+
+public class RecommendationUnavailableException extends RuntimeException {
+    public RecommendationUnavailableException(String message) {
+        super(message);
+    }
+
+    public RecommendationUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
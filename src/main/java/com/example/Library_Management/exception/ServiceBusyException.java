@@ -0,0 +1,14 @@
+package com.example.Library_Management.exception;
+
+/**
+ * Thrown when a bounded worker pool is full; callers should answer 503 and let the client retry.
+ */
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+
+    public ServiceBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
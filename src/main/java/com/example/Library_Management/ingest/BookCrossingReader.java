@@ -0,0 +1,268 @@
+package com.example.Library_Management.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Forward-only reader for the semicolon separated Book-Crossing export.
+ * <p>
+ * The file is mapped window by window through a {@link FileChannel}; field boundaries are found at
+ * the byte level and numbers are parsed straight from the mapped bytes, so the only Strings created
+ * are the text fields a caller actually asks for. Bytes are decoded as ISO-8859-1, which is the
+ * encoding of the published dataset.
+ * <p>
+ * Splitting follows {@code line.split(";", -1)}: quotes do not protect a delimiter, they are only
+ * dropped by {@link #cleaned(int)} and the numeric accessors. Not thread-safe.
+ */
+public class BookCrossingReader implements Closeable {
+
+    private static final int DEFAULT_WINDOW = 64 * 1024 * 1024;
+    private static final byte DELIMITER = ';';
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int windowLimit;
+
+    private long recordStart;
+    private long nextRecordStart;
+    private long lineNumber;
+
+    private int fieldCount;
+    private int[] fieldStarts = new int[8];
+    private int[] fieldEnds = new int[8];
+    private byte[] scratch = new byte[256];
+
+    public BookCrossingReader(Path path) throws IOException {
+        this(path, DEFAULT_WINDOW);
+    }
+
+    BookCrossingReader(Path path, int windowSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Moves to the record that starts at the given byte offset, which must be a value previously
+     * returned by {@link #position()}. Line numbers restart from the given value.
+     */
+    public void seek(long position, long lineNumber) {
+        this.nextRecordStart = position;
+        this.lineNumber = lineNumber;
+        this.fieldCount = 0;
+    }
+
+    /**
+     * Advances to the next record. Returns false once the end of the file has been reached.
+     */
+    public boolean next() throws IOException {
+        if (nextRecordStart >= size) {
+            fieldCount = 0;
+            return false;
+        }
+        ensureMapped(nextRecordStart);
+        int offset = (int) (nextRecordStart - windowStart);
+        int end = scanRecord(offset);
+        while (end < 0) {
+            if (windowStart + windowLimit >= size) {
+                end = windowLimit;
+                break;
+            }
+            if (offset == 0) {
+                throw new IOException("Record at byte " + nextRecordStart + " is longer than the " + windowSize + " byte window");
+            }
+            // Record straddles the window edge: remap starting at the record
+            map(nextRecordStart);
+            offset = 0;
+            end = scanRecord(offset);
+        }
+
+        recordStart = windowStart + offset;
+        int next = end < windowLimit ? end + 1 : end;
+        nextRecordStart = windowStart + next;
+        // Mirror BufferedReader.readLine(): a trailing CR belongs to the line terminator
+        if (end > offset && window.get(end - 1) == '\r') {
+            end--;
+        }
+        splitFields(offset, end);
+        lineNumber++;
+        return true;
+    }
+
+    /**
+     * Byte offset of the next unread record, suitable for {@link #seek(long, long)}.
+     */
+    public long position() {
+        return nextRecordStart;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * The field with surrounding whitespace removed, like {@code String.trim()}.
+     */
+    public String trimmed(int field) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        while (start < end && isSpace(window.get(start))) start++;
+        while (end > start && isSpace(window.get(end - 1))) end--;
+        return decode(start, end, false);
+    }
+
+    /**
+     * The field with every single and double quote removed, then trimmed.
+     */
+    public String cleaned(int field) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        while (start < end && isSpaceOrQuote(window.get(start))) start++;
+        while (end > start && isSpaceOrQuote(window.get(end - 1))) end--;
+        return decode(start, end, true);
+    }
+
+    public boolean isBlank(int field) {
+        for (int i = fieldStarts[field]; i < fieldEnds[field]; i++) {
+            if (!isSpace(window.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the field as a non-negative decimal integer, ignoring quotes and surrounding
+     * whitespace. Returns {@code fallback} when the field is empty, contains anything else or
+     * overflows an int.
+     */
+    public int parseInt(int field, int fallback) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        while (start < end && isSpaceOrQuote(window.get(start))) start++;
+        while (end > start && isSpaceOrQuote(window.get(end - 1))) end--;
+        if (start == end) {
+            return fallback;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            byte b = window.get(i);
+            if (b == '"' || b == '\'') {
+                continue;
+            }
+            if (b < '0' || b > '9') {
+                return fallback;
+            }
+            value = value * 10 + (b - '0');
+            if (value > Integer.MAX_VALUE) {
+                return fallback;
+            }
+        }
+        return (int) value;
+    }
+
+    /**
+     * The whole current record, for diagnostics only.
+     */
+    public String line() {
+        if (fieldCount == 0) {
+            return "";
+        }
+        return decode(fieldStarts[0], fieldEnds[fieldCount - 1], false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    private void ensureMapped(long position) throws IOException {
+        if (window == null || position < windowStart || position >= windowStart + windowLimit) {
+            map(position);
+        }
+    }
+
+    private void map(long position) throws IOException {
+        long length = Math.min(windowSize, size - position);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        windowStart = position;
+        windowLimit = (int) length;
+    }
+
+    /**
+     * Returns the index of the terminating LF, or -1 if the window ends first.
+     */
+    private int scanRecord(int from) {
+        for (int i = from; i < windowLimit; i++) {
+            if (window.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void splitFields(int start, int end) {
+        fieldCount = 0;
+        int fieldStart = start;
+        for (int i = start; i < end; i++) {
+            if (window.get(i) == DELIMITER) {
+                addField(fieldStart, i);
+                fieldStart = i + 1;
+            }
+        }
+        addField(fieldStart, end);
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private String decode(int start, int end, boolean dropQuotes) {
+        int length = end - start;
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            byte b = window.get(i);
+            if (dropQuotes && (b == '"' || b == '\'')) {
+                continue;
+            }
+            scratch[n++] = b;
+        }
+        return new String(scratch, 0, n, StandardCharsets.ISO_8859_1);
+    }
+
+    private static boolean isSpace(byte b) {
+        return (b & 0xFF) <= ' ';
+    }
+
+    private static boolean isSpaceOrQuote(byte b) {
+        return isSpace(b) || b == '"' || b == '\'';
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.Library_Management.ingest;
+
+import com.example.Library_Management.model.IngestionJob;
+
+/**
+ * Live counters of a running ingestion job. Written by the job thread after each committed chunk
+ * and read by status requests, so every counter reflects committed state only.
+ */
+public class IngestionProgress {
+
+    private final long totalBytes;
+    private final long startOffset;
+    private final long startRows;
+
+    private volatile long startNanos = System.nanoTime();
+    private volatile long byteOffset;
+    private volatile long linesRead;
+    private volatile long booksInserted;
+    private volatile long ratingsInserted;
+    private volatile long rejected;
+    private volatile boolean cancelRequested;
+    private volatile boolean stopRequested;
+
+    public IngestionProgress(IngestionJob job) {
+        this.totalBytes = job.getFileSize();
+        this.startOffset = job.getByteOffset();
+        this.startRows = job.getBooksInserted() + job.getRatingsInserted();
+        this.byteOffset = job.getByteOffset();
+        this.linesRead = job.getLinesRead();
+        this.booksInserted = job.getBooksInserted();
+        this.ratingsInserted = job.getRatingsInserted();
+        this.rejected = job.getRejected();
+    }
+
+    /**
+     * Restarts the run clock once the job leaves the queue.
+     */
+    public void start() {
+        startNanos = System.nanoTime();
+    }
+
+    public void checkpoint(long byteOffset, long linesRead, long booksInserted, long ratingsInserted, long rejected) {
+        this.byteOffset = byteOffset;
+        this.linesRead = linesRead;
+        this.booksInserted = booksInserted;
+        this.ratingsInserted = ratingsInserted;
+        this.rejected = rejected;
+    }
+
+    /**
+     * Stops the job at the next line and marks it cancelled.
+     */
+    public void cancel() {
+        cancelRequested = true;
+        stopRequested = true;
+    }
+
+    /**
+     * Stops the job at the next line but leaves it resumable, e.g. on shutdown.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public boolean isStopRequested() {
+        return stopRequested;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getByteOffset() {
+        return byteOffset;
+    }
+
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    public long getBooksInserted() {
+        return booksInserted;
+    }
+
+    public long getRatingsInserted() {
+        return ratingsInserted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Rows written per second since this run started (a resumed job does not count earlier runs).
+     */
+    public double getRowsPerSecond() {
+        long rows = booksInserted + ratingsInserted - startRows;
+        return rows * 1000.0 / Math.max(1, getElapsedMillis());
+    }
+
+    /**
+     * Remaining seconds extrapolated from the bytes consumed during this run, or null before the
+     * first checkpoint.
+     */
+    public Long getEtaSeconds() {
+        long consumed = byteOffset - startOffset;
+        if (consumed <= 0) {
+            return null;
+        }
+        double bytesPerMilli = (double) consumed / Math.max(1, getElapsedMillis());
+        return Math.round((totalBytes - byteOffset) / bytesPerMilli / 1000.0);
+    }
+}
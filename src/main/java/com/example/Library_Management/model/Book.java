@@ -9,9 +9,11 @@ import lombok.*;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(indexes = @Index(name = "uk_book_isbn", columnList = "isbn", unique = true))
 public class Book {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 100)
     private Long id;
     @Column(columnDefinition = "text")
     private String title;
@@ -0,0 +1,38 @@
+package com.example.Library_Management.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionJob {
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(columnDefinition = "text")
+    private String filePath;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    private long fileSize;
+    private long byteOffset; // Start of the first record not yet committed
+    private long linesRead;
+    private long booksInserted;
+    private long ratingsInserted;
+    private long rejected;
+    private long elapsedMillis;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    @Column(columnDefinition = "text")
+    private String error;
+}
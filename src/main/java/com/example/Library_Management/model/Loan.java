@@ -8,6 +8,7 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(indexes = @Index(name = "idx_loan_user_id", columnList = "user_id, id"))
 public class Loan {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
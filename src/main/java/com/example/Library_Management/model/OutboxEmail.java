@@ -0,0 +1,38 @@
+package com.example.Library_Management.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(indexes = @Index(name = "idx_outbox_email_due", columnList = "status, next_attempt_at"))
+public class OutboxEmail {
+    public enum Status { PENDING, SENT, DEAD }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_email_seq")
+    @SequenceGenerator(name = "outbox_email_seq", sequenceName = "outbox_email_seq", allocationSize = 100)
+    private Long id;
+
+    private String recipient;
+
+    @Column(columnDefinition = "text")
+    private String subject;
+
+    @Column(columnDefinition = "text")
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    private int attempts;
+    private LocalDateTime nextAttemptAt; // Also pushed forward while a dispatcher holds the row
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+
+    @Column(columnDefinition = "text")
+    private String lastError;
+}
@@ -1,21 +1,30 @@
 package com.example.Library_Management.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+// One rating per reader and book; imported ratings have no reader, and null users never conflict
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_rating_user_book", columnNames = {"user_id", "book_id"}),
+       indexes = @Index(name = "idx_rating_book", columnList = "book_id"))
 public class Rating {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rating_seq")
+    @SequenceGenerator(name = "rating_seq", sequenceName = "rating_seq", allocationSize = 100)
     private Long id;
 
     @ManyToOne
     private Book book;
 
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    private User user;
+
     private Integer rating;
 }
@@ -0,0 +1,378 @@
+package com.example.Library_Management.recommend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Item-to-item "borrowed together" neighbours from who borrowed what.
+ * <p>
+ * The sparse user-by-book borrow matrix is held twice as int arrays, once per user and once per
+ * book, with ids mapped to dense indexes. A book's co-occurrence row is computed on demand by
+ * walking its borrowers' books, and only its top-K neighbours are kept, scored by cosine
+ * similarity: borrowers in common over the square root of the product of both books' borrower
+ * counts. Users with more than {@code maxUserBooks} books are skipped when scoring, the way very
+ * common terms are skipped in {@link ContentIndex}.
+ * <p>
+ * Loans added after {@link Builder#build} recompute the borrowed book's neighbours and are offered
+ * to the neighbour lists of the user's other books; scores elsewhere drift slightly until the
+ * next rebuild. Not thread-safe: callers serialise {@link #add} against readers.
+ */
+public class CoBorrowIndex {
+
+    public record Neighbour(long bookId, float score) {
+    }
+
+    private final int neighbourCount;
+    private final int maxUserBooks;
+
+    private final LongIntHashMap bookIndex = new LongIntHashMap(1024);
+    private final LongIntHashMap userIndex = new LongIntHashMap(1024);
+    private long[] bookIds = new long[1024];
+    private int[][] bookUsers = new int[1024][];
+    private int[] bookUserCounts = new int[1024];
+    private int[][] userBooks = new int[1024][];
+    private int[] userBookCounts = new int[1024];
+    private int[][] neighbourBooks = new int[1024][];
+    private float[][] neighbourScores = new float[1024][];
+    private int bookCount;
+    private int userCount;
+    private long pairCount;
+
+    private int[] scratchTogether = new int[0];
+    private int[] scratchTouched = new int[0];
+
+    private CoBorrowIndex(int neighbourCount, int maxUserBooks) {
+        this.neighbourCount = neighbourCount;
+        this.maxUserBooks = maxUserBooks;
+    }
+
+    public static Builder builder(int neighbourCount, int maxUserBooks) {
+        return new Builder(new CoBorrowIndex(neighbourCount, maxUserBooks));
+    }
+
+    /**
+     * Collects loans without maintaining neighbours, then computes every book's neighbours at once.
+     */
+    public static class Builder {
+        private final CoBorrowIndex index;
+
+        private Builder(CoBorrowIndex index) {
+            this.index = index;
+        }
+
+        public Builder add(long userId, long bookId) {
+            index.append(index.user(userId), index.book(bookId));
+            return this;
+        }
+
+        /**
+         * Drops repeat loans of a book by the same user and computes neighbour lists in parallel on
+         * the given pool.
+         */
+        public CoBorrowIndex build(ForkJoinPool pool) {
+            index.compact();
+            if (index.bookCount > 0) {
+                pool.invoke(index.new NeighbourTask(0, index.bookCount,
+                        Math.max(64, index.bookCount / (pool.getParallelism() * 8))));
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Records that the user borrowed the book; returns false if they had borrowed it before, in
+     * which case nothing changes.
+     */
+    public boolean add(long userId, long bookId) {
+        int user = user(userId);
+        int book = book(bookId);
+        int[] books = userBooks[user];
+        for (int i = 0; i < userBookCounts[user]; i++) {
+            if (books[i] == book) {
+                return false;
+            }
+        }
+        append(user, book);
+        append(bookUsers, bookUserCounts, book, user);
+        pairCount++;
+        if (userBookCounts[user] > maxUserBooks) {
+            return true;
+        }
+
+        if (scratchTogether.length < bookCount) {
+            scratchTogether = new int[bookCount * 2];
+            scratchTouched = new int[bookCount * 2];
+        }
+        int touched = accumulate(book, scratchTogether, scratchTouched);
+        books = userBooks[user];
+        for (int i = 0; i < userBookCounts[user]; i++) {
+            int other = books[i];
+            if (other != book) {
+                offer(other, book, score(scratchTogether[other], book, other));
+            }
+        }
+        selectNeighbours(book, scratchTogether, scratchTouched, touched);
+        return true;
+    }
+
+    /**
+     * Precomputed neighbours of the book, most borrowed-together first. Empty when the book is unknown.
+     */
+    public List<Neighbour> neighbours(long bookId) {
+        int book = bookIndex.get(bookId);
+        if (book < 0 || neighbourBooks[book] == null) {
+            return List.of();
+        }
+        int[] books = neighbourBooks[book];
+        float[] scores = neighbourScores[book];
+        List<Neighbour> result = new ArrayList<>(books.length);
+        for (int i = 0; i < books.length; i++) {
+            result.add(new Neighbour(bookIds[books[i]], scores[i]));
+        }
+        return result;
+    }
+
+    public int bookCount() {
+        return bookCount;
+    }
+
+    public int userCount() {
+        return userCount;
+    }
+
+    /**
+     * Distinct (user, book) pairs, i.e. non-zero cells of the borrow matrix.
+     */
+    public long pairCount() {
+        return pairCount;
+    }
+
+    private int book(long bookId) {
+        int book = bookIndex.get(bookId);
+        if (book < 0) {
+            ensureBookCapacity(bookCount + 1);
+            book = bookCount++;
+            bookIds[book] = bookId;
+            bookIndex.put(bookId, book);
+        }
+        return book;
+    }
+
+    private int user(long userId) {
+        int user = userIndex.get(userId);
+        if (user < 0) {
+            ensureUserCapacity(userCount + 1);
+            user = userCount++;
+            userIndex.put(userId, user);
+        }
+        return user;
+    }
+
+    private void append(int user, int book) {
+        append(userBooks, userBookCounts, user, book);
+    }
+
+    private static void append(int[][] lists, int[] sizes, int list, int value) {
+        int size = sizes[list];
+        if (lists[list] == null) {
+            lists[list] = new int[4];
+        } else if (size == lists[list].length) {
+            lists[list] = Arrays.copyOf(lists[list], size * 2);
+        }
+        lists[list][size] = value;
+        sizes[list] = size + 1;
+    }
+
+    /**
+     * Sorts and de-duplicates each user's books, trims every list to size and fills in the
+     * per-book borrower lists.
+     */
+    private void compact() {
+        pairCount = 0;
+        for (int user = 0; user < userCount; user++) {
+            int[] books = userBooks[user];
+            int size = userBookCounts[user];
+            Arrays.sort(books, 0, size);
+            int unique = 0;
+            for (int i = 0; i < size; i++) {
+                if (unique == 0 || books[i] != books[unique - 1]) {
+                    books[unique++] = books[i];
+                }
+            }
+            userBooks[user] = unique == books.length ? books : Arrays.copyOf(books, unique);
+            userBookCounts[user] = unique;
+            pairCount += unique;
+            for (int i = 0; i < unique; i++) {
+                bookUserCounts[books[i]]++;
+            }
+        }
+        for (int book = 0; book < bookCount; book++) {
+            bookUsers[book] = new int[bookUserCounts[book]];
+            bookUserCounts[book] = 0;
+        }
+        for (int user = 0; user < userCount; user++) {
+            int[] books = userBooks[user];
+            for (int i = 0; i < userBookCounts[user]; i++) {
+                bookUsers[books[i]][bookUserCounts[books[i]]++] = user;
+            }
+        }
+    }
+
+    /**
+     * Counts, for every book borrowed by one of {@code book}'s borrowers, how many of them it shares
+     * with {@code book}, recording each book touched. Returns the number of touched books.
+     */
+    private int accumulate(int book, int[] together, int[] touched) {
+        int count = 0;
+        int[] users = bookUsers[book];
+        for (int i = 0; i < bookUserCounts[book]; i++) {
+            int user = users[i];
+            int size = userBookCounts[user];
+            if (size > maxUserBooks) {
+                continue;
+            }
+            int[] books = userBooks[user];
+            for (int j = 0; j < size; j++) {
+                int other = books[j];
+                if (other == book) {
+                    continue;
+                }
+                if (together[other] == 0) {
+                    touched[count++] = other;
+                }
+                together[other]++;
+            }
+        }
+        return count;
+    }
+
+    private float score(int together, int book, int other) {
+        return (float) (together / Math.sqrt((double) bookUserCounts[book] * bookUserCounts[other]));
+    }
+
+    /**
+     * Keeps the best {@code neighbourCount} touched books as the neighbours of {@code book} and
+     * clears their counts for reuse.
+     */
+    private void selectNeighbours(int book, int[] together, int[] touched, int count) {
+        int k = Math.min(neighbourCount, count);
+        int[] bestBooks = new int[k];
+        float[] bestScores = new float[k];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int other = touched[i];
+            float score = score(together[other], book, other);
+            together[other] = 0;
+            if (size < k) {
+                size = insert(bestBooks, bestScores, size, other, score);
+            } else if (score > bestScores[k - 1]) {
+                insert(bestBooks, bestScores, k - 1, other, score);
+            }
+        }
+        neighbourBooks[book] = bestBooks;
+        neighbourScores[book] = bestScores;
+    }
+
+    /**
+     * Puts {@code candidate} into the neighbours of {@code book} with the given score, replacing its
+     * previous entry if it had one, or else the weakest neighbour if the list is full.
+     */
+    private void offer(int book, int candidate, float score) {
+        int[] books = neighbourBooks[book] == null ? new int[0] : neighbourBooks[book];
+        float[] scores = neighbourScores[book] == null ? new float[0] : neighbourScores[book];
+        int existing = -1;
+        for (int i = 0; i < books.length; i++) {
+            if (books[i] == candidate) {
+                existing = i;
+                break;
+            }
+        }
+        if (existing >= 0) {
+            books = books.clone();
+            scores = scores.clone();
+            System.arraycopy(books, existing + 1, books, existing, books.length - existing - 1);
+            System.arraycopy(scores, existing + 1, scores, existing, scores.length - existing - 1);
+            insert(books, scores, books.length - 1, candidate, score);
+        } else if (books.length < neighbourCount) {
+            books = Arrays.copyOf(books, books.length + 1);
+            scores = Arrays.copyOf(scores, scores.length + 1);
+            insert(books, scores, books.length - 1, candidate, score);
+        } else if (books.length > 0 && score > scores[books.length - 1]) {
+            books = books.clone();
+            scores = scores.clone();
+            insert(books, scores, books.length - 1, candidate, score);
+        } else {
+            return;
+        }
+        neighbourScores[book] = scores;
+        neighbourBooks[book] = books;
+    }
+
+    /**
+     * Inserts into descending-by-score arrays holding {@code size} entries; returns the new size.
+     */
+    private static int insert(int[] books, float[] scores, int size, int book, float score) {
+        int pos = size;
+        while (pos > 0 && scores[pos - 1] < score) {
+            if (pos < books.length) {
+                books[pos] = books[pos - 1];
+                scores[pos] = scores[pos - 1];
+            }
+            pos--;
+        }
+        books[pos] = book;
+        scores[pos] = score;
+        return Math.min(size + 1, books.length);
+    }
+
+    private void ensureBookCapacity(int capacity) {
+        if (capacity <= bookIds.length) {
+            return;
+        }
+        int length = Math.max(capacity, bookIds.length * 2);
+        bookIds = Arrays.copyOf(bookIds, length);
+        bookUsers = Arrays.copyOf(bookUsers, length);
+        bookUserCounts = Arrays.copyOf(bookUserCounts, length);
+        neighbourBooks = Arrays.copyOf(neighbourBooks, length);
+        neighbourScores = Arrays.copyOf(neighbourScores, length);
+    }
+
+    private void ensureUserCapacity(int capacity) {
+        if (capacity <= userBooks.length) {
+            return;
+        }
+        int length = Math.max(capacity, userBooks.length * 2);
+        userBooks = Arrays.copyOf(userBooks, length);
+        userBookCounts = Arrays.copyOf(userBookCounts, length);
+    }
+
+    private class NeighbourTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        NeighbourTask(int from, int to, int threshold) {
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new NeighbourTask(from, mid, threshold), new NeighbourTask(mid, to, threshold));
+                return;
+            }
+            int[] together = new int[bookCount];
+            int[] touched = new int[bookCount];
+            for (int book = from; book < to; book++) {
+                int count = accumulate(book, together, touched);
+                selectNeighbours(book, together, touched, count);
+            }
+        }
+    }
+}
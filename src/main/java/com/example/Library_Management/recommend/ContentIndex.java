@@ -0,0 +1,364 @@
+package com.example.Library_Management.recommend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sparse TF-IDF vectors over book text with a precomputed top-K cosine neighbour list per book.
+ * <p>
+ * Similarities are computed through an inverted index, so each book is only compared with books
+ * sharing at least one term. Terms that occur in more than {@code maxPostings} books are too
+ * common to say anything about similarity and are skipped when scoring.
+ * <p>
+ * Books added after {@link #build} are weighted with the document frequencies at the time they
+ * are added and are offered to the neighbour lists of every book they score against. Removed books
+ * are only tombstoned; a periodic rebuild compacts them away. Not thread-safe: callers serialise
+ * {@link #add} and {@link #remove} against readers.
+ */
+public class ContentIndex {
+
+    public record Document(long bookId, String title, String text) {
+    }
+
+    public record Neighbour(long bookId, String title, float score) {
+    }
+
+    private final int neighbourCount;
+    private final int maxPostings;
+
+    private final Map<String, Integer> vocabulary = new HashMap<>();
+    private int[] documentFrequency = new int[1024];
+    private int[][] postingDocs = new int[1024][];
+    private float[][] postingWeights = new float[1024][];
+    private int[] postingSizes = new int[1024];
+
+    private final Map<Long, Integer> docByBookId = new HashMap<>();
+    private long[] bookIds = new long[1024];
+    private String[] titles = new String[1024];
+    private int[][] docTerms = new int[1024][];
+    private float[][] docWeights = new float[1024][];
+    private int[][] neighbourDocs = new int[1024][];
+    private float[][] neighbourScores = new float[1024][];
+    private boolean[] removed = new boolean[1024];
+    private int docCount;
+    private int liveCount;
+
+    private float[] scratchScores = new float[0];
+    private int[] scratchTouched = new int[0];
+
+    public ContentIndex(int neighbourCount, int maxPostings) {
+        this.neighbourCount = neighbourCount;
+        this.maxPostings = maxPostings;
+    }
+
+    /**
+     * Builds the index for all documents, computing neighbour lists in parallel on the given pool.
+     */
+    public static ContentIndex build(List<Document> documents, int neighbourCount, int maxPostings, ForkJoinPool pool) {
+        ContentIndex index = new ContentIndex(neighbourCount, maxPostings);
+        int[][] counts = new int[documents.size()][];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = index.addTerms(documents.get(i));
+        }
+        for (int doc = 0; doc < index.docCount; doc++) {
+            index.weigh(doc, counts[doc]);
+            index.post(doc);
+        }
+        if (index.docCount > 0) {
+            pool.invoke(index.new NeighbourTask(0, index.docCount,
+                    Math.max(256, index.docCount / (pool.getParallelism() * 8))));
+        }
+        return index;
+    }
+
+    public void add(Document document) {
+        remove(document.bookId());
+        int doc = docCount;
+        int[] counts = addTerms(document);
+        weigh(doc, counts);
+        post(doc);
+
+        if (scratchScores.length < docCount) {
+            scratchScores = new float[docCount * 2];
+            scratchTouched = new int[docCount * 2];
+        }
+        int touched = accumulate(doc, scratchScores, scratchTouched);
+        for (int i = 0; i < touched; i++) {
+            int other = scratchTouched[i];
+            offer(other, doc, scratchScores[other]);
+        }
+        selectNeighbours(doc, scratchScores, scratchTouched, touched);
+    }
+
+    public void remove(long bookId) {
+        Integer doc = docByBookId.remove(bookId);
+        if (doc == null) {
+            return;
+        }
+        removed[doc] = true;
+        liveCount--;
+        for (int term : docTerms[doc]) {
+            documentFrequency[term]--;
+        }
+    }
+
+    public boolean contains(long bookId) {
+        return docByBookId.containsKey(bookId);
+    }
+
+    public int size() {
+        return liveCount;
+    }
+
+    /**
+     * Precomputed neighbours of the book, most similar first. Empty when the book is unknown.
+     */
+    public List<Neighbour> neighbours(long bookId) {
+        Integer doc = docByBookId.get(bookId);
+        if (doc == null || neighbourDocs[doc] == null) {
+            return List.of();
+        }
+        int[] docs = neighbourDocs[doc];
+        float[] scores = neighbourScores[doc];
+        List<Neighbour> result = new ArrayList<>(docs.length);
+        for (int i = 0; i < docs.length; i++) {
+            if (!removed[docs[i]]) {
+                result.add(new Neighbour(bookIds[docs[i]], titles[docs[i]], scores[i]));
+            }
+        }
+        return result;
+    }
+
+    public String title(long bookId) {
+        Integer doc = docByBookId.get(bookId);
+        return doc == null ? null : titles[doc];
+    }
+
+    private int[] addTerms(Document document) {
+        ensureDocCapacity(docCount + 1);
+        int doc = docCount++;
+        bookIds[doc] = document.bookId();
+        titles[doc] = document.title();
+        docByBookId.put(document.bookId(), doc);
+        liveCount++;
+
+        Map<Integer, Integer> termCounts = new HashMap<>();
+        for (String term : TextAnalyzer.terms(document.text())) {
+            Integer id = vocabulary.get(term);
+            if (id == null) {
+                id = vocabulary.size();
+                vocabulary.put(term, id);
+                ensureTermCapacity(id + 1);
+            }
+            termCounts.merge(id, 1, Integer::sum);
+        }
+        int[] terms = new int[termCounts.size()];
+        int n = 0;
+        for (int term : termCounts.keySet()) {
+            terms[n++] = term;
+        }
+        Arrays.sort(terms);
+        int[] counts = new int[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            counts[i] = termCounts.get(terms[i]);
+            documentFrequency[terms[i]]++;
+        }
+        docTerms[doc] = terms;
+        return counts;
+    }
+
+    private void weigh(int doc, int[] counts) {
+        int[] terms = docTerms[doc];
+        float[] weights = new float[terms.length];
+        double norm = 0;
+        for (int i = 0; i < terms.length; i++) {
+            // Smoothed idf, as in scikit-learn: ln((1 + n) / (1 + df)) + 1
+            double idf = Math.log((1.0 + liveCount) / (1.0 + documentFrequency[terms[i]])) + 1.0;
+            double weight = counts[i] * idf;
+            weights[i] = (float) weight;
+            norm += weight * weight;
+        }
+        if (norm > 0) {
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] *= scale;
+            }
+        }
+        docWeights[doc] = weights;
+    }
+
+    private void post(int doc) {
+        int[] terms = docTerms[doc];
+        float[] weights = docWeights[doc];
+        for (int i = 0; i < terms.length; i++) {
+            int term = terms[i];
+            int size = postingSizes[term];
+            if (postingDocs[term] == null) {
+                postingDocs[term] = new int[4];
+                postingWeights[term] = new float[4];
+            } else if (size == postingDocs[term].length) {
+                postingDocs[term] = Arrays.copyOf(postingDocs[term], size * 2);
+                postingWeights[term] = Arrays.copyOf(postingWeights[term], size * 2);
+            }
+            postingDocs[term][size] = doc;
+            postingWeights[term][size] = weights[i];
+            postingSizes[term] = size + 1;
+        }
+    }
+
+    /**
+     * Adds the dot product of {@code doc} with every live book sharing a scored term into
+     * {@code scores}, recording each book touched. Returns the number of touched books.
+     */
+    private int accumulate(int doc, float[] scores, int[] touched) {
+        int count = 0;
+        int[] terms = docTerms[doc];
+        float[] weights = docWeights[doc];
+        for (int i = 0; i < terms.length; i++) {
+            int term = terms[i];
+            int size = postingSizes[term];
+            if (size > maxPostings) {
+                continue;
+            }
+            int[] docs = postingDocs[term];
+            float[] postingWeight = postingWeights[term];
+            for (int p = 0; p < size; p++) {
+                int other = docs[p];
+                if (other == doc || removed[other]) {
+                    continue;
+                }
+                if (scores[other] == 0f) {
+                    touched[count++] = other;
+                }
+                scores[other] += weights[i] * postingWeight[p];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Keeps the best {@code neighbourCount} touched books as the neighbours of {@code doc} and
+     * clears their scores for reuse.
+     */
+    private void selectNeighbours(int doc, float[] scores, int[] touched, int count) {
+        int k = Math.min(neighbourCount, count);
+        int[] bestDocs = new int[k];
+        float[] bestScores = new float[k];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int other = touched[i];
+            float score = scores[other];
+            scores[other] = 0f;
+            if (score <= 0f) {
+                continue;
+            }
+            if (size < k) {
+                size = insert(bestDocs, bestScores, size, other, score);
+            } else if (score > bestScores[k - 1]) {
+                insert(bestDocs, bestScores, k - 1, other, score);
+            }
+        }
+        neighbourDocs[doc] = size == k ? bestDocs : Arrays.copyOf(bestDocs, size);
+        neighbourScores[doc] = size == k ? bestScores : Arrays.copyOf(bestScores, size);
+    }
+
+    /**
+     * Offers {@code candidate} as a neighbour of {@code doc}, replacing its weakest neighbour if
+     * the list is full.
+     */
+    private void offer(int doc, int candidate, float score) {
+        int[] docs = neighbourDocs[doc];
+        float[] scores = neighbourScores[doc];
+        if (docs == null) {
+            docs = new int[0];
+            scores = new float[0];
+        }
+        if (docs.length < neighbourCount) {
+            docs = Arrays.copyOf(docs, docs.length + 1);
+            scores = Arrays.copyOf(scores, scores.length + 1);
+            insert(docs, scores, docs.length - 1, candidate, score);
+        } else if (docs.length > 0 && score > scores[docs.length - 1]) {
+            docs = docs.clone();
+            scores = scores.clone();
+            insert(docs, scores, docs.length - 1, candidate, score);
+        } else {
+            return;
+        }
+        neighbourScores[doc] = scores;
+        neighbourDocs[doc] = docs;
+    }
+
+    /**
+     * Inserts into descending-by-score arrays holding {@code size} entries; returns the new size.
+     */
+    private static int insert(int[] docs, float[] scores, int size, int doc, float score) {
+        int pos = size;
+        while (pos > 0 && scores[pos - 1] < score) {
+            if (pos < docs.length) {
+                docs[pos] = docs[pos - 1];
+                scores[pos] = scores[pos - 1];
+            }
+            pos--;
+        }
+        docs[pos] = doc;
+        scores[pos] = score;
+        return Math.min(size + 1, docs.length);
+    }
+
+    private void ensureDocCapacity(int capacity) {
+        if (capacity <= bookIds.length) {
+            return;
+        }
+        int length = Math.max(capacity, bookIds.length * 2);
+        bookIds = Arrays.copyOf(bookIds, length);
+        titles = Arrays.copyOf(titles, length);
+        docTerms = Arrays.copyOf(docTerms, length);
+        docWeights = Arrays.copyOf(docWeights, length);
+        neighbourDocs = Arrays.copyOf(neighbourDocs, length);
+        neighbourScores = Arrays.copyOf(neighbourScores, length);
+        removed = Arrays.copyOf(removed, length);
+    }
+
+    private void ensureTermCapacity(int capacity) {
+        if (capacity <= documentFrequency.length) {
+            return;
+        }
+        int length = Math.max(capacity, documentFrequency.length * 2);
+        documentFrequency = Arrays.copyOf(documentFrequency, length);
+        postingDocs = Arrays.copyOf(postingDocs, length);
+        postingWeights = Arrays.copyOf(postingWeights, length);
+        postingSizes = Arrays.copyOf(postingSizes, length);
+    }
+
+    private class NeighbourTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        NeighbourTask(int from, int to, int threshold) {
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new NeighbourTask(from, mid, threshold), new NeighbourTask(mid, to, threshold));
+                return;
+            }
+            float[] scores = new float[docCount];
+            int[] touched = new int[docCount];
+            for (int doc = from; doc < to; doc++) {
+                int count = accumulate(doc, scores, touched);
+                selectNeighbours(doc, scores, touched, count);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.Library_Management.recommend;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Books ordered by a score (highest first, ties by lowest id), updated in O(log n) per change.
+ * Only books with a positive score are kept. Thread-safe.
+ */
+public class Leaderboard {
+
+    private record Entry(long bookId, long score) {
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong(Entry::score).reversed()
+            .thenComparingLong(Entry::bookId);
+
+    private final Map<Long, Long> scores = new HashMap<>();
+    private final TreeSet<Entry> ranking = new TreeSet<>(ORDER);
+    private long version;
+
+    public synchronized void add(long bookId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        Long current = scores.get(bookId);
+        long score = (current == null ? 0 : current) + delta;
+        if (current != null) {
+            ranking.remove(new Entry(bookId, current));
+        }
+        if (score > 0) {
+            scores.put(bookId, score);
+            ranking.add(new Entry(bookId, score));
+        } else {
+            scores.remove(bookId);
+        }
+        version++;
+    }
+
+    public synchronized void remove(long bookId) {
+        Long current = scores.remove(bookId);
+        if (current != null) {
+            ranking.remove(new Entry(bookId, current));
+            version++;
+        }
+    }
+
+    public synchronized void clear() {
+        scores.clear();
+        ranking.clear();
+        version++;
+    }
+
+    public synchronized long score(long bookId) {
+        return scores.getOrDefault(bookId, 0L);
+    }
+
+    /**
+     * Ids of the {@code limit} highest scoring books.
+     */
+    public synchronized List<Long> top(int limit) {
+        List<Long> result = new ArrayList<>(limit);
+        Iterator<Entry> it = ranking.iterator();
+        while (it.hasNext() && result.size() < limit) {
+            result.add(it.next().bookId());
+        }
+        return result;
+    }
+
+    /**
+     * Increases on every change, so callers can cache results derived from {@link #top(int)}.
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    public synchronized int size() {
+        return scores.size();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.Library_Management.recommend;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leaderboard over the last {@code days} calendar days. Events are counted in per-day buckets;
+ * when a day leaves the window its bucket is subtracted from the ranking, so history is never
+ * rescanned. Thread-safe.
+ */
+public class SlidingWindowLeaderboard {
+
+    private record DayBucket(LocalDate day, Map<Long, Long> counts) {
+    }
+
+    private final int days;
+    private final Leaderboard leaderboard = new Leaderboard();
+    private final Deque<DayBucket> buckets = new ArrayDeque<>();
+
+    public SlidingWindowLeaderboard(int days) {
+        this.days = days;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    /**
+     * Counts one event for the book on the given day. Events older than the window are ignored.
+     */
+    public synchronized void record(long bookId, LocalDate day, LocalDate today) {
+        advance(today);
+        if (!inWindow(day, today)) {
+            return;
+        }
+        DayBucket bucket = null;
+        for (DayBucket candidate : buckets) {
+            if (candidate.day().equals(day)) {
+                bucket = candidate;
+                break;
+            }
+        }
+        if (bucket == null) {
+            bucket = new DayBucket(day, new HashMap<>());
+            buckets.add(bucket);
+        }
+        bucket.counts().merge(bookId, 1L, Long::sum);
+        leaderboard.add(bookId, 1);
+    }
+
+    public synchronized void remove(long bookId) {
+        for (DayBucket bucket : buckets) {
+            bucket.counts().remove(bookId);
+        }
+        leaderboard.remove(bookId);
+    }
+
+    public synchronized void clear() {
+        buckets.clear();
+        leaderboard.clear();
+    }
+
+    /**
+     * Drops the buckets that have fallen out of the window ending today.
+     */
+    public synchronized void advance(LocalDate today) {
+        buckets.removeIf(bucket -> {
+            if (inWindow(bucket.day(), today)) {
+                return false;
+            }
+            bucket.counts().forEach((bookId, count) -> leaderboard.add(bookId, -count));
+            return true;
+        });
+    }
+
+    public synchronized List<Long> top(int limit, LocalDate today) {
+        advance(today);
+        return leaderboard.top(limit);
+    }
+
+    public synchronized long version(LocalDate today) {
+        advance(today);
+        return leaderboard.version();
+    }
+
+    private boolean inWindow(LocalDate day, LocalDate today) {
+        return !day.isBefore(today.minusDays(days - 1)) && !day.isAfter(today);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.Library_Management.recommend;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns book text into TF-IDF terms the same way the Python service configured scikit-learn's
+ * {@code TfidfVectorizer(ngram_range=(1, 2), stop_words='english')}: lower case, non-ASCII
+ * characters and punctuation dropped, tokens of two or more word characters, English stop words
+ * removed, then unigrams plus bigrams of the remaining tokens.
+ */
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "about", "above", "after", "again", "against", "all", "almost", "also", "am", "among", "an",
+            "and", "another", "any", "are", "around", "as", "at", "be", "became", "because", "been", "before",
+            "being", "below", "between", "both", "but", "by", "can", "cannot", "could", "did", "do", "does",
+            "doing", "down", "during", "each", "either", "else", "enough", "etc", "even", "ever", "every", "few",
+            "for", "from", "further", "had", "has", "have", "having", "he", "her", "here", "hers", "herself",
+            "him", "himself", "his", "how", "however", "if", "in", "into", "is", "it", "its", "itself", "just",
+            "last", "least", "less", "many", "may", "me", "might", "more", "most", "much", "must", "my", "myself",
+            "neither", "never", "no", "nor", "not", "now", "of", "off", "often", "on", "once", "only", "or",
+            "other", "others", "otherwise", "our", "ours", "ourselves", "out", "over", "own", "per", "perhaps",
+            "rather", "same", "several", "she", "should", "since", "so", "some", "still", "such", "than", "that",
+            "the", "their", "theirs", "them", "themselves", "then", "there", "these", "they", "this", "those",
+            "though", "through", "thus", "to", "too", "toward", "under", "until", "up", "upon", "us", "very",
+            "was", "we", "well", "were", "what", "whatever", "when", "where", "whether", "which", "while", "who",
+            "whole", "whom", "whose", "why", "will", "with", "within", "without", "would", "yet", "you", "your",
+            "yours", "yourself", "yourselves");
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> terms(String text) {
+        List<String> tokens = tokens(text);
+        List<String> terms = new ArrayList<>(tokens.size() * 2);
+        terms.addAll(tokens);
+        for (int i = 1; i < tokens.size(); i++) {
+            terms.add(tokens.get(i - 1) + " " + tokens.get(i));
+        }
+        return terms;
+    }
+
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (c > 127) {
+                continue; // Dropped like encode('ascii', 'ignore')
+            }
+            if (Character.isLetterOrDigit(c) || c == '_') {
+                current.append(Character.toLowerCase(c));
+            } else if (Character.isWhitespace(c)) {
+                if (current.length() >= 2) {
+                    String token = current.toString();
+                    if (!STOP_WORDS.contains(token)) {
+                        tokens.add(token);
+                    }
+                }
+                current.setLength(0);
+            }
+            // Any other punctuation is removed without splitting the word
+        }
+        return tokens;
+    }
+}
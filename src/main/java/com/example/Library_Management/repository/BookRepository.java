@@ -1,14 +1,92 @@
 package com.example.Library_Management.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import com.example.Library_Management.dto.BookCard;
 import com.example.Library_Management.model.Book;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
     List<Book> findByTitleContainingIgnoreCase(String title);
+    List<Book> findByTitleContainingIgnoreCase(String title, Pageable pageable);
     List<Book> findByAuthor(String author);
     List<Book> findByPublisher(String publisher);
     Optional<Book> findByIsbn(String isbn);
 
+    @Query("select b.id, b.isbn from Book b")
+    List<Object[]> findAllIdAndIsbn();
+
+    @Query("select b.id, b.isbn from Book b where b.isbn in :isbns")
+    List<Object[]> findIdAndIsbnByIsbnIn(@Param("isbns") Collection<String> isbns);
+
+    /**
+     * Inserts one book per row of the arrays, skipping ISBNs that already exist (PostgreSQL only),
+     * and returns the id and ISBN of each book inserted. An ISBN another transaction is inserting
+     * waits for that transaction and is skipped if it commits.
+     */
+    @Query(value = "insert into book (id, isbn, title, author, year, publisher, total_copies, available_copies) " +
+                   "select nextval('book_seq'), r.isbn, r.title, r.author, r.year, r.publisher, :copies, :copies " +
+                   "from unnest(cast(:isbns as text[]), cast(:titles as text[]), cast(:authors as text[]), " +
+                   "cast(:years as integer[]), cast(:publishers as text[])) as r(isbn, title, author, year, publisher) " +
+                   "on conflict (isbn) do nothing " +
+                   "returning id, isbn",
+           nativeQuery = true)
+    List<Object[]> insertMissing(@Param("isbns") String[] isbns,
+                                 @Param("titles") String[] titles,
+                                 @Param("authors") String[] authors,
+                                 @Param("years") Integer[] years,
+                                 @Param("publishers") String[] publishers,
+                                 @Param("copies") int copies);
+
+    @Query("select b.id, b.title, b.author, b.publisher from Book b")
+    List<Object[]> findAllForContentIndex();
+
+    @Query("select new com.example.Library_Management.dto.BookCard(b.id, b.isbn, b.title, b.author, b.availableCopies) " +
+           "from Book b where b.id in :ids")
+    List<BookCard> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.example.Library_Management.dto.BookCard(b.id, b.isbn, b.title, b.author, b.availableCopies) " +
+           "from Book b where b.title in :titles order by b.id")
+    List<BookCard> findCardsByTitleIn(@Param("titles") Collection<String> titles);
+
+    /**
+     * Takes one copy if any is available; returns 0 when the book is missing or out of stock.
+     * The row lock is held until the surrounding transaction ends.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.availableCopies = b.availableCopies - 1 where b.id = :id and b.availableCopies > 0")
+    int takeCopy(@Param("id") Long id);
+
+    /**
+     * Replaces the book's details and total copies, moving the available copies by the change in
+     * the total so copies out on loan stay counted. Returns 0 when the book is missing or the new
+     * total is below the copies currently on loan.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.title = :title, b.author = :author, b.isbn = :isbn, b.year = :year, " +
+           "b.publisher = :publisher, b.availableCopies = b.availableCopies + :totalCopies - b.totalCopies, " +
+           "b.totalCopies = :totalCopies " +
+           "where b.id = :id and b.totalCopies - b.availableCopies <= :totalCopies")
+    int updateDetails(@Param("id") Long id,
+                      @Param("title") String title,
+                      @Param("author") String author,
+                      @Param("isbn") String isbn,
+                      @Param("year") Integer year,
+                      @Param("publisher") String publisher,
+                      @Param("totalCopies") int totalCopies);
+
+    /**
+     * Puts one copy back, never above the total; returns 0 when nothing was changed.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.availableCopies = b.availableCopies + 1 " +
+           "where b.id = :id and (b.totalCopies is null or b.availableCopies < b.totalCopies)")
+    int returnCopy(@Param("id") Long id);
+
 }
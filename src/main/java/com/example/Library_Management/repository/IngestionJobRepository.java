@@ -0,0 +1,25 @@
+package com.example.Library_Management.repository;
+
+import com.example.Library_Management.model.IngestionJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface IngestionJobRepository extends JpaRepository<IngestionJob, Long> {
+    List<IngestionJob> findByStatusInOrderByIdAsc(Collection<IngestionJob.Status> statuses);
+
+    @Modifying
+    @Query("update IngestionJob j set j.byteOffset = :byteOffset, j.linesRead = :linesRead, " +
+           "j.booksInserted = :booksInserted, j.ratingsInserted = :ratingsInserted, j.rejected = :rejected " +
+           "where j.id = :id")
+    int checkpoint(@Param("id") Long id,
+                   @Param("byteOffset") long byteOffset,
+                   @Param("linesRead") long linesRead,
+                   @Param("booksInserted") long booksInserted,
+                   @Param("ratingsInserted") long ratingsInserted,
+                   @Param("rejected") long rejected);
+}
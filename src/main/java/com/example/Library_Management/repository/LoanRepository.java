@@ -1,10 +1,57 @@
 package com.example.Library_Management.repository;
 
+import com.example.Library_Management.dto.LoanView;
 import com.example.Library_Management.model.Loan;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface LoanRepository extends JpaRepository<Loan, Long>, JpaSpecificationExecutor<Loan> {
+    List<LoanView> findByUser_IdAndReturnDateIsNullOrderByIdAsc(Long userId);
+
+    @Query("select l.user.id from Loan l where l.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+
+    @EntityGraph(attributePaths = {"user", "book"})
+    List<Loan> findByIdIn(Collection<Long> ids);
+
+    @Query("select l.id, l.dueDate from Loan l where l.returnDate is null")
+    List<Object[]> findOpenLoanIdAndDueDate();
+
+    @Query("select l.book.id, l.loanDate from Loan l where l.loanDate >= :since")
+    List<Object[]> findBookIdAndLoanDateSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Every loan's (user id, book id); read it in a read-only transaction so it streams from a cursor.
+     */
+    @Query("select l.user.id, l.book.id from Loan l")
+    Stream<Object[]> streamUserIdAndBookId();
+
+    /**
+     * Sets the return date if the loan is still open; returns 0 when it was already returned.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Loan l set l.returnDate = :returnDate where l.id = :id and l.returnDate is null")
+    int markReturned(@Param("id") Long id, @Param("returnDate") LocalDateTime returnDate);
 
-public interface LoanRepository extends JpaRepository<Loan, Long> {
-    List<Loan> findByReturnDateIsNull(); // Active loans
-    List<Loan> findByDueDateBeforeAndReturnDateIsNull(java.time.LocalDateTime now);
-}
\ No newline at end of file
+    /**
+     * One page of open overdue loans after the given (user id, loan id) position, ordered by user
+     * so each user's loans arrive together, with user and book loaded in the same query.
+     */
+    @Query("select l from Loan l join fetch l.user u join fetch l.book " +
+            "where l.returnDate is null and l.dueDate < :now " +
+            "and (u.id > :afterUserId or (u.id = :afterUserId and l.id > :afterLoanId)) " +
+            "order by u.id, l.id")
+    List<Loan> findOverduePage(@Param("now") LocalDateTime now, @Param("afterUserId") Long afterUserId,
+                               @Param("afterLoanId") Long afterLoanId, Pageable page);
+}
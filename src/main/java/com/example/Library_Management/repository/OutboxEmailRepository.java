@@ -0,0 +1,54 @@
+package com.example.Library_Management.repository;
+
+import com.example.Library_Management.model.OutboxEmail;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+    long countByStatus(OutboxEmail.Status status);
+
+    /**
+     * Pending messages that are due, locked for update; rows another dispatcher holds are skipped.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEmail e where e.status = 'PENDING' and e.nextAttemptAt <= :now " +
+           "order by e.nextAttemptAt, e.id")
+    List<OutboxEmail> lockDue(@Param("now") LocalDateTime now, Pageable page);
+
+    @Query("select min(e.createdAt) from OutboxEmail e where e.status = 'PENDING'")
+    LocalDateTime findOldestPendingCreatedAt();
+
+    @Modifying
+    @Query("update OutboxEmail e set e.nextAttemptAt = :until where e.id in :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("update OutboxEmail e set e.status = 'SENT', e.sentAt = :sentAt, e.attempts = e.attempts + 1 " +
+           "where e.id in :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("update OutboxEmail e set e.status = :status, e.attempts = :attempts, " +
+           "e.nextAttemptAt = :nextAttemptAt, e.lastError = :error where e.id = :id")
+    int markFailed(@Param("id") Long id,
+                   @Param("status") OutboxEmail.Status status,
+                   @Param("attempts") int attempts,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+
+    @Modifying
+    @Query("delete from OutboxEmail e where e.status = 'SENT' and e.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
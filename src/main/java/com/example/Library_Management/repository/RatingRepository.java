@@ -3,7 +3,35 @@ package com.example.Library_Management.repository;
 import com.example.Library_Management.model.Book;
 import com.example.Library_Management.model.Rating;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface RatingRepository extends JpaRepository<Rating, Long> {
+import java.util.List;
+import java.util.Optional;
+
+public interface RatingRepository extends JpaRepository<Rating, Long>, RatingRepositoryCustom {
     void deleteByBook(Book book);
+
+    List<Rating> findByBook_Id(Long bookId);
+
+    Optional<Rating> findByUser_IdAndBook_Id(Long userId, Long bookId);
+
+    @Query("select r.book.id, count(r), sum(r.rating) from Rating r group by r.book.id")
+    List<Object[]> aggregateByBook();
+
+    @Query("select count(r), sum(r.rating) from Rating r where r.book.id = :bookId")
+    List<Object[]> aggregateForBook(@Param("bookId") Long bookId);
+
+    /**
+     * Inserts or replaces the user's rating of the book in one statement (PostgreSQL only) and returns
+     * one row of id, new rating, previous rating (null when inserted) and whether a row was inserted.
+     * A previous rating committed after the statement started reads as null while inserted is false.
+     */
+    @Query(value = "with previous as (select p.rating from rating p where p.user_id = :userId and p.book_id = :bookId) " +
+                   "insert into rating as r (id, user_id, book_id, rating) " +
+                   "values (nextval('rating_seq'), :userId, :bookId, :rating) " +
+                   "on conflict (user_id, book_id) do update set rating = excluded.rating " +
+                   "returning r.id, r.rating, (select rating from previous), (r.xmax = 0)",
+           nativeQuery = true)
+    List<Object[]> upsert(@Param("userId") Long userId, @Param("bookId") Long bookId, @Param("rating") int rating);
 }
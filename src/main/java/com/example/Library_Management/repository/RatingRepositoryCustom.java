@@ -0,0 +1,14 @@
+package com.example.Library_Management.repository;
+
+import java.util.List;
+
+public interface RatingRepositoryCustom {
+
+    /**
+     * Upserts a batch of ratings in one statement (PostgreSQL only). The arrays are parallel and
+     * must hold each (user, book) pair at most once. Returns one row per rating with book id, new
+     * rating, previous rating and whether it was inserted, as {@link RatingRepository#upsert} does.
+     * Ratings of books or by users that no longer exist are skipped and get no row.
+     */
+    List<Object[]> upsertAll(long[] userIds, long[] bookIds, int[] ratings);
+}
@@ -0,0 +1,44 @@
+package com.example.Library_Management.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Batch upsert bound as three arrays, so a batch of any size is one statement and one round trip
+ * and still reports what each row replaced. Rows whose book or user is gone are skipped, so one
+ * deleted book cannot fail the whole batch.
+ */
+public class RatingRepositoryImpl implements RatingRepositoryCustom {
+
+    private static final String UPSERT_ALL =
+            "with input as (select * from unnest(?::bigint[], ?::bigint[], ?::integer[]) as i(user_id, book_id, rating)), " +
+            "previous as (select p.user_id, p.book_id, p.rating from rating p " +
+            "join input i on p.user_id = i.user_id and p.book_id = i.book_id) " +
+            "insert into rating as r (id, user_id, book_id, rating) " +
+            "select nextval('rating_seq'), i.user_id, i.book_id, i.rating from input i " +
+            "join book b on b.id = i.book_id join users u on u.id = i.user_id " +
+            "on conflict (user_id, book_id) do update set rating = excluded.rating " +
+            "returning r.book_id, r.rating, " +
+            "(select p.rating from previous p where p.user_id = r.user_id and p.book_id = r.book_id), (r.xmax = 0)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Object[]> upsertAll(long[] userIds, long[] bookIds, int[] ratings) {
+        return jdbcTemplate.query(UPSERT_ALL, statement -> {
+            Connection connection = statement.getConnection();
+            statement.setArray(1, connection.createArrayOf("bigint", boxed(userIds)));
+            statement.setArray(2, connection.createArrayOf("bigint", boxed(bookIds)));
+            statement.setArray(3, connection.createArrayOf("integer", Arrays.stream(ratings).boxed().toArray()));
+        }, (row, rowNum) -> new Object[]{row.getLong(1), row.getInt(2), row.getObject(3, Integer.class), row.getBoolean(4)});
+    }
+
+    private static Object[] boxed(long[] values) {
+        return Arrays.stream(values).boxed().toArray();
+    }
+}
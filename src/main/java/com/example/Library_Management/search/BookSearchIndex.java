@@ -0,0 +1,292 @@
+package com.example.Library_Management.search;
+
+import java.util.*;
+
+/**
+ * In-memory search index over book titles and authors.
+ * <ul>
+ *     <li>Substring title search: candidates come from intersecting the posting lists of the
+ *     query's character trigrams and are then verified, so cost depends on the rarest trigram
+ *     rather than the catalog size. Single characters and pairs are indexed too, so one- and
+ *     two-character queries read one posting list. Exact title matches are returned first.</li>
+ *     <li>Autocomplete: titles starting with the prefix, then titles with a word starting with it.</li>
+ *     <li>Ranked search: every query word (the last one as a prefix) scores the books whose title
+ *     or author contains it, weighted by rarity; title hits count double.</li>
+ * </ul>
+ * Removed books are tombstoned and skipped; a rebuild compacts them. Not thread-safe: callers
+ * serialise {@link #add} and {@link #remove} against readers.
+ */
+public class BookSearchIndex {
+
+    private static final int MAX_PREFIX_EXPANSION = 64;
+    private static final float TITLE_WEIGHT = 2f;
+    private static final float AUTHOR_WEIGHT = 1f;
+    private static final int MAX_GRAM = 3;
+
+    private final Map<Long, Integer> docByBookId = new HashMap<>();
+    private long[] bookIds = new long[1024];
+    private String[] titles = new String[1024];
+    private String[] normalizedTitles = new String[1024];
+    private boolean[] removed = new boolean[1024];
+    private int docCount;
+    private int liveCount;
+
+    private final Map<Long, IntList> grams = new HashMap<>();
+    private final TreeMap<String, IntList> titlesByText = new TreeMap<>();
+    private final TreeMap<String, IntList> titleWords = new TreeMap<>();
+    private final TreeMap<String, IntList> authorWords = new TreeMap<>();
+
+    public void add(long bookId, String title, String author) {
+        remove(bookId);
+        ensureCapacity(docCount + 1);
+        int doc = docCount++;
+        String normalizedTitle = normalize(title);
+        bookIds[doc] = bookId;
+        titles[doc] = title;
+        normalizedTitles[doc] = normalizedTitle;
+        docByBookId.put(bookId, doc);
+        liveCount++;
+
+        titlesByText.computeIfAbsent(normalizedTitle, k -> new IntList()).add(doc);
+        Set<Long> seen = new HashSet<>();
+        for (int length = 1; length <= MAX_GRAM; length++) {
+            for (int i = 0; i + length <= normalizedTitle.length(); i++) {
+                long gram = gram(normalizedTitle, i, length);
+                if (seen.add(gram)) {
+                    grams.computeIfAbsent(gram, k -> new IntList()).add(doc);
+                }
+            }
+        }
+        for (String word : new LinkedHashSet<>(words(normalizedTitle))) {
+            titleWords.computeIfAbsent(word, k -> new IntList()).add(doc);
+        }
+        for (String word : new LinkedHashSet<>(words(normalize(author)))) {
+            authorWords.computeIfAbsent(word, k -> new IntList()).add(doc);
+        }
+    }
+
+    public void remove(long bookId) {
+        Integer doc = docByBookId.remove(bookId);
+        if (doc != null) {
+            removed[doc] = true;
+            liveCount--;
+        }
+    }
+
+    public int size() {
+        return liveCount;
+    }
+
+    /**
+     * Ids of books whose title contains the query, ignoring case; exact title matches first.
+     */
+    public List<Long> findByTitleContaining(String query, int limit) {
+        String needle = normalize(query);
+        List<Long> result = new ArrayList<>();
+        if (needle.isEmpty() || limit <= 0) {
+            return result;
+        }
+        Set<Integer> added = new HashSet<>();
+        IntList exact = titlesByText.get(needle);
+        if (exact != null) {
+            for (int i = 0; i < exact.size && result.size() < limit; i++) {
+                int doc = exact.values[i];
+                if (!removed[doc] && added.add(doc)) {
+                    result.add(bookIds[doc]);
+                }
+            }
+        }
+
+        int length = Math.min(MAX_GRAM, needle.length());
+        List<IntList> lists = new ArrayList<>();
+        for (int i = 0; i + length <= needle.length(); i++) {
+            IntList postings = grams.get(gram(needle, i, length));
+            if (postings == null) {
+                return result;
+            }
+            lists.add(postings);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        IntList smallest = lists.get(0);
+        for (int i = 0; i < smallest.size && result.size() < limit; i++) {
+            int doc = smallest.values[i];
+            if (removed[doc] || added.contains(doc)) {
+                continue;
+            }
+            boolean inAll = true;
+            for (int l = 1; l < lists.size() && inAll; l++) {
+                inAll = lists.get(l).contains(doc);
+            }
+            if (inAll && normalizedTitles[doc].contains(needle)) {
+                added.add(doc);
+                result.add(bookIds[doc]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Distinct titles starting with the prefix, then titles containing a word that does.
+     */
+    public List<String> autocomplete(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        Set<String> result = new LinkedHashSet<>();
+        if (normalized.isEmpty() || limit <= 0) {
+            return new ArrayList<>(result);
+        }
+        for (IntList docs : prefixRange(titlesByText, normalized).values()) {
+            addTitles(docs, result, limit);
+            if (result.size() >= limit) {
+                return new ArrayList<>(result);
+            }
+        }
+        List<String> words = words(normalized);
+        String lastWord = words.isEmpty() ? normalized : words.get(words.size() - 1);
+        int expanded = 0;
+        for (IntList docs : prefixRange(titleWords, lastWord).values()) {
+            addTitles(docs, result, limit);
+            if (result.size() >= limit || ++expanded >= MAX_PREFIX_EXPANSION) {
+                break;
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Ids of the best matching books for a free-text query over title and author. Each word
+     * scores by rarity (title hits count double); the last word also matches as a prefix.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> words = words(normalize(query));
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Map<Integer, float[]> scores = new HashMap<>(); // doc -> {score, words matched}
+        for (int w = 0; w < words.size(); w++) {
+            String word = words.get(w);
+            boolean prefix = w == words.size() - 1;
+            Map<Integer, Float> wordScores = new HashMap<>();
+            collect(titleWords, word, prefix, TITLE_WEIGHT, wordScores);
+            collect(authorWords, word, prefix, AUTHOR_WEIGHT, wordScores);
+            wordScores.forEach((doc, score) -> {
+                float[] total = scores.computeIfAbsent(doc, d -> new float[2]);
+                total[0] += score;
+                total[1]++;
+            });
+        }
+
+        // Books matching more of the words always rank above books matching fewer
+        PriorityQueue<Map.Entry<Integer, float[]>> top = new PriorityQueue<>(
+                Comparator.<Map.Entry<Integer, float[]>>comparingDouble(e -> e.getValue()[1])
+                        .thenComparingDouble(e -> e.getValue()[0]));
+        for (Map.Entry<Integer, float[]> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Long> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            result.add(bookIds[top.poll().getKey()]);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private void collect(TreeMap<String, IntList> index, String word, boolean prefix, float weight,
+                         Map<Integer, Float> wordScores) {
+        Collection<IntList> matches;
+        if (prefix) {
+            matches = prefixRange(index, word).values();
+        } else {
+            IntList exact = index.get(word);
+            matches = exact == null ? List.of() : List.of(exact);
+        }
+        int expanded = 0;
+        for (IntList docs : matches) {
+            float score = weight * (float) Math.log(1.0 + (double) Math.max(1, liveCount) / docs.size);
+            for (int i = 0; i < docs.size; i++) {
+                int doc = docs.values[i];
+                if (!removed[doc]) {
+                    wordScores.merge(doc, score, Math::max);
+                }
+            }
+            if (++expanded >= MAX_PREFIX_EXPANSION) {
+                break;
+            }
+        }
+    }
+
+    private void addTitles(IntList docs, Set<String> result, int limit) {
+        for (int i = 0; i < docs.size && result.size() < limit; i++) {
+            int doc = docs.values[i];
+            if (!removed[doc] && titles[doc] != null) {
+                result.add(titles[doc]);
+            }
+        }
+    }
+
+    private static SortedMap<String, IntList> prefixRange(TreeMap<String, IntList> index, String prefix) {
+        return index.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> words(String normalized) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * The length in the top bits keeps grams of different lengths apart.
+     */
+    private static long gram(String text, int offset, int length) {
+        long gram = length;
+        for (int i = offset; i < offset + length; i++) {
+            gram = (gram << 16) | text.charAt(i);
+        }
+        return gram;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= bookIds.length) {
+            return;
+        }
+        int length = Math.max(capacity, bookIds.length * 2);
+        bookIds = Arrays.copyOf(bookIds, length);
+        titles = Arrays.copyOf(titles, length);
+        normalizedTitles = Arrays.copyOf(normalizedTitles, length);
+        removed = Arrays.copyOf(removed, length);
+    }
+
+    /**
+     * Ascending doc ids; documents are only ever appended, so lists stay sorted.
+     */
+    private static final class IntList {
+        private int[] values = new int[2];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+    }
+}
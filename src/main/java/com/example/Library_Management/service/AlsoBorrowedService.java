@@ -0,0 +1,160 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.recommend.CoBorrowIndex;
+import com.example.Library_Management.repository.LoanRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * "Borrowed together" recommendations answered from an in-memory co-borrow index over every loan.
+ * The index is built in the background at startup, updated as loans are made, and rebuilt nightly
+ * to refresh the scores that incremental updates leave slightly stale.
+ */
+@Slf4j
+@Service
+public class AlsoBorrowedService {
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${recommendation.also-borrowed.neighbours:20}")
+    private int neighbourCount;
+
+    @Value("${recommendation.also-borrowed.max-user-books:500}")
+    private int maxUserBooks;
+
+    @Value("${recommendation.also-borrowed.parallelism:0}")
+    private int parallelism;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Loans made while a rebuild is reading the loan table, replayed onto the new index
+    private final List<Consumer<CoBorrowIndex>> pendingChanges = new ArrayList<>();
+    private CoBorrowIndex index;
+    private ForkJoinPool pool;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread thread = new Thread(this::rebuild, "co-borrow-index-build");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return index != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(cron = "${recommendation.also-borrowed.rebuild-cron:0 15 3 * * *}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            CoBorrowIndex.Builder builder = CoBorrowIndex.builder(neighbourCount, maxUserBooks);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> loans = loanRepository.streamUserIdAndBookId()) {
+                    Iterator<Object[]> iterator = loans.iterator();
+                    while (iterator.hasNext()) {
+                        Object[] row = iterator.next();
+                        builder.add((Long) row[0], (Long) row[1]);
+                    }
+                }
+            });
+            CoBorrowIndex rebuilt = builder.build(pool());
+
+            lock.writeLock().lock();
+            try {
+                pendingChanges.forEach(change -> change.accept(rebuilt));
+                pendingChanges.clear();
+                index = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Built co-borrow index for {} books, {} users and {} pairs in {} ms", rebuilt.bookCount(),
+                    rebuilt.userCount(), rebuilt.pairCount(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.error("Failed to build co-borrow index", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    public void recordLoan(Long userId, Long bookId) {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                index.add(userId, bookId);
+            }
+            if (rebuilding.get()) {
+                pendingChanges.add(rebuilt -> rebuilt.add(userId, bookId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the books most often borrowed by the readers of the given one; empty until the index
+     * is built or when nobody has borrowed the book alongside another.
+     */
+    public List<Long> recommendIds(Long bookId, int limit) {
+        lock.readLock().lock();
+        try {
+            if (index == null) {
+                return List.of();
+            }
+            List<Long> ids = new ArrayList<>(limit);
+            for (CoBorrowIndex.Neighbour neighbour : index.neighbours(bookId)) {
+                if (ids.size() == limit) {
+                    break;
+                }
+                ids.add(neighbour.bookId());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            pool = parallelism > 0 ? new ForkJoinPool(parallelism) : new ForkJoinPool();
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.model.Book;
+import com.example.Library_Management.repository.BookRepository;
+import com.example.Library_Management.search.BookSearchIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Title and author search answered from an in-memory {@link BookSearchIndex}. The index is built
+ * in the background at startup, patched when a book is saved or deleted, and rebuilt after each
+ * ingestion job and nightly to compact deletions. Until the first build finishes, callers fall
+ * back to the database.
+ */
+@Slf4j
+@Service
+public class BookSearchService {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Changes made while a rebuild is reading the catalog, replayed onto the new index
+    private final List<Consumer<BookSearchIndex>> pendingChanges = new ArrayList<>();
+    private BookSearchIndex index;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread thread = new Thread(this::rebuild, "search-index-build");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return index != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(cron = "${search.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            BookSearchIndex rebuilt = new BookSearchIndex();
+            for (Object[] row : bookRepository.findAllForContentIndex()) {
+                rebuilt.add((Long) row[0], (String) row[1], (String) row[2]);
+            }
+
+            lock.writeLock().lock();
+            try {
+                pendingChanges.forEach(change -> change.accept(rebuilt));
+                pendingChanges.clear();
+                index = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Built search index for {} books in {} ms", rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.error("Failed to build search index", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    public void onBookSaved(Book book) {
+        apply(index -> index.add(book.getId(), book.getTitle(), book.getAuthor()));
+    }
+
+    public void onBookDeleted(Long bookId) {
+        apply(index -> index.remove(bookId));
+    }
+
+    /**
+     * Ids of books whose title contains the text, ignoring case; exact title matches first.
+     */
+    public List<Long> findIdsByTitleContaining(String title, int limit) {
+        return read(index -> index.findByTitleContaining(title, limit));
+    }
+
+    /**
+     * Ids of the best matches for a free-text query over title and author.
+     */
+    public List<Long> searchIds(String query, int limit) {
+        return read(index -> index.search(query, limit));
+    }
+
+    public List<String> autocomplete(String prefix, int limit) {
+        return read(index -> index.autocomplete(prefix, limit));
+    }
+
+    private <T> T read(Function<BookSearchIndex, T> query) {
+        lock.readLock().lock();
+        try {
+            if (index == null) {
+                throw new IllegalStateException("Search index is not built yet");
+            }
+            return query.apply(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<BookSearchIndex> change) {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                change.accept(index);
+            }
+            if (rebuilding.get()) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -1,39 +1,208 @@
 package com.example.Library_Management.service;
 
+import com.example.Library_Management.dto.CursorPage;
 import com.example.Library_Management.model.Book;
 import com.example.Library_Management.repository.BookRepository;
 import com.example.Library_Management.repository.RatingRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.example.Library_Management.util.JsonStreamer;
+import com.example.Library_Management.util.KeysetPaging;
+import com.example.Library_Management.util.Transactions;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class BookService {
 
+    private static final Set<String> SORT_FIELDS = Set.of("id", "title");
+
     @Autowired
     private BookRepository bookRepository;
 
     @Autowired
     private RatingRepository ratingRepository;
 
-    public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+    @Autowired
+    private RatingAggregateService ratingAggregateService;
+
+    @Autowired
+    private ContentRecommendationService contentRecommendationService;
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private JsonStreamer jsonStreamer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Value("${cache.books.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${cache.books.expire-after-write:10m}")
+    private Duration cacheExpireAfterWrite;
+
+    // Callers get copies, so editing a fetched book cannot leak into the cache before it is saved
+    private Cache<Long, Book> booksById;
+    private Cache<String, Long> bookIdsByIsbn;
+
+    @PostConstruct
+    public void init() {
+        booksById = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheExpireAfterWrite)
+                .recordStats()
+                .build();
+        bookIdsByIsbn = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheExpireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, booksById, "books");
+        CaffeineCacheMetrics.monitor(meterRegistry, bookIdsByIsbn, "bookIdsByIsbn");
     }
 
-    public List<Book> searchBooks(String title) {
-        return bookRepository.findByTitleContainingIgnoreCase(title);
+    /**
+     * One keyset page of books matching the filters; null filters are ignored.
+     */
+    public CursorPage<Book> listBooks(String author, String publisher, Boolean available,
+                                      String sort, String cursor, int limit) {
+        Sort order = KeysetPaging.sort(sort, SORT_FIELDS);
+        Window<Book> window = bookRepository.findBy(filter(author, publisher, available),
+                query -> query.sortBy(order).limit(limit).scroll(KeysetPaging.position(cursor, order)));
+        return new CursorPage<>(window.getContent(), KeysetPaging.nextCursor(window));
     }
 
-    public Book save(Book book) {
-        return bookRepository.save(book);
+    /**
+     * Every book matching the filters as a JSON array, written as it is read. The sort is checked
+     * here, so a bad one fails before the response starts.
+     */
+    public StreamingResponseBody streamBooks(String author, String publisher, Boolean available, String sort) {
+        Sort order = KeysetPaging.sort(sort, SORT_FIELDS);
+        Specification<Book> filter = filter(author, publisher, available);
+        return out -> jsonStreamer.write(() -> bookRepository.findBy(filter, query -> query.sortBy(order).stream()), out);
     }
 
+    /**
+     * Books whose title contains the text, ignoring case; exact title matches come first.
+     */
+    public List<Book> searchBooks(String title, int limit) {
+        if (!bookSearchService.isReady()) {
+            return bookRepository.findByTitleContainingIgnoreCase(title, PageRequest.of(0, limit));
+        }
+        return findAllInOrder(bookSearchService.findIdsByTitleContaining(title, limit));
+    }
 
+    /**
+     * Best matches for a free-text query over title and author, most relevant first.
+     */
+    public List<Book> searchByText(String query, int limit) {
+        if (!bookSearchService.isReady()) {
+            return bookRepository.findByTitleContainingIgnoreCase(query.trim(), PageRequest.of(0, limit));
+        }
+        return findAllInOrder(bookSearchService.searchIds(query, limit));
+    }
+
+    public List<String> autocompleteTitles(String prefix, int limit) {
+        if (!bookSearchService.isReady()) {
+            return bookRepository.findByTitleContainingIgnoreCase(prefix.trim(), PageRequest.of(0, limit)).stream()
+                    .map(Book::getTitle)
+                    .distinct()
+                    .collect(Collectors.toList());
+        }
+        return bookSearchService.autocomplete(prefix, limit);
+    }
+
+    public Book save(Book book) {
+        Book saved = bookRepository.save(book);
+        evictBook(saved.getId());
+        contentRecommendationService.onBookSaved(saved);
+        bookSearchService.onBookSaved(saved);
+        return saved;
+    }
+
+    /**
+     * Replaces a book's details and total copies in one conditional update, so copies lent or
+     * returned meanwhile are not overwritten. Fails if fewer copies than are on loan are asked for.
+     */
+    @Transactional
+    public Book updateBook(Long id, Book details) {
+        int updated = bookRepository.updateDetails(id, details.getTitle(), details.getAuthor(), details.getIsbn(),
+                details.getYear(), details.getPublisher(), details.getTotalCopies());
+        Book saved = bookRepository.findById(id).orElseThrow(() -> new RuntimeException("Book not found"));
+        if (updated == 0) {
+            throw new IllegalStateException("Total copies cannot be fewer than the copies on loan");
+        }
+        Transactions.afterCommit(() -> {
+            evictBook(id);
+            contentRecommendationService.onBookSaved(saved);
+            bookSearchService.onBookSaved(saved);
+        });
+        return saved;
+    }
 
     public Book getBookById(Long id) {
-        return bookRepository.findById(id).orElseThrow(() -> new RuntimeException("Book not found"));
+        Book book = booksById.get(id, key -> bookRepository.findById(key).orElse(null));
+        if (book == null) {
+            throw new RuntimeException("Book not found");
+        }
+        return copy(book);
+    }
+
+    public Book getBookByIsbn(String isbn) {
+        Long id = bookIdsByIsbn.get(isbn, key -> bookRepository.findByIsbn(key).map(Book::getId).orElse(null));
+        if (id != null) {
+            Book book = booksById.get(id, key -> bookRepository.findById(key).orElse(null));
+            if (book != null && isbn.equals(book.getIsbn())) {
+                return copy(book);
+            }
+            bookIdsByIsbn.invalidate(isbn);
+        }
+        return bookRepository.findByIsbn(isbn).orElseThrow(() -> new RuntimeException("Book not found"));
+    }
+
+    /**
+     * Drops the cached copy of a book after it was saved, deleted or lent out or returned, and
+     * marks it changed in the catalog snapshot.
+     */
+    public void evictBook(Long id) {
+        catalogSnapshotService.markChanged(id);
+        Book cached = booksById.getIfPresent(id);
+        if (cached != null && cached.getIsbn() != null) {
+            bookIdsByIsbn.invalidate(cached.getIsbn());
+        }
+        booksById.invalidate(id);
+    }
+
+    private static Book copy(Book book) {
+        Book copy = new Book();
+        BeanUtils.copyProperties(book, copy);
+        return copy;
     }
 
     @Transactional
@@ -41,5 +210,42 @@ public class BookService {
         Book book = bookRepository.findById(id).orElseThrow(() -> new RuntimeException("Book not found"));
         ratingRepository.deleteByBook(book);
         bookRepository.deleteById(id);
+        Transactions.afterCommit(() -> {
+            evictBook(id);
+            ratingAggregateService.removeBook(id);
+            contentRecommendationService.onBookDeleted(id);
+            bookSearchService.onBookDeleted(id);
+        });
+    }
+
+    private static Specification<Book> filter(String author, String publisher, Boolean available) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (author != null) {
+                predicates.add(cb.equal(cb.lower(root.get("author")), author.trim().toLowerCase()));
+            }
+            if (publisher != null) {
+                predicates.add(cb.equal(cb.lower(root.get("publisher")), publisher.trim().toLowerCase()));
+            }
+            if (available != null) {
+                predicates.add(available
+                        ? cb.greaterThan(root.get("availableCopies"), 0)
+                        : cb.lessThanOrEqualTo(root.get("availableCopies"), 0));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private List<Book> findAllInOrder(List<Long> ids) {
+        Map<Long, Book> books = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<Book> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Book book = books.get(id);
+            if (book != null) {
+                ordered.add(book);
+            }
+        }
+        return ordered;
     }
 }
@@ -0,0 +1,205 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.model.Book;
+import com.example.Library_Management.repository.BookRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The whole catalog as an immutable, pre-serialized JSON array plus a gzipped copy, tagged with a
+ * hash of its content. Each book's JSON is kept separately, so a change re-serializes only the
+ * books that changed before the array is reassembled. Changes mark the snapshot stale and the
+ * next request rebuilds it, at most once per min-rebuild-interval.
+ */
+@Slf4j
+@Service
+public class CatalogSnapshotService {
+
+    private static final int CLEAR_EVERY = 1000;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${catalog.min-rebuild-interval:1s}")
+    private Duration minRebuildInterval;
+
+    public record Snapshot(String etag, byte[] json, byte[] gzip, int books, long builtAtNanos) {
+    }
+
+    // Process-unique prefix for version tags, so a restart cannot reuse one for other content
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private volatile boolean reloadAll = true;
+    private volatile Snapshot current;
+    private SortedMap<Long, byte[]> fragments; // Guarded by this
+
+    /**
+     * Marks one book as changed (saved, deleted, or lent out or returned).
+     */
+    public void markChanged(Long bookId) {
+        changed.add(bookId);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Forces a full reload on the next request, e.g. after a bulk import.
+     */
+    public void reset() {
+        reloadAll = true;
+        version.incrementAndGet();
+    }
+
+    /**
+     * A tag that changes whenever any book does; cheap enough to check before any query runs.
+     */
+    public String versionTag() {
+        return epoch + "-" + version.get();
+    }
+
+    public Snapshot current() {
+        Snapshot snapshot = current;
+        if (snapshot != null && !isStale(snapshot)) {
+            return snapshot;
+        }
+        synchronized (this) {
+            snapshot = current;
+            if (snapshot == null || isStale(snapshot)) {
+                current = snapshot = rebuild();
+            }
+            return snapshot;
+        }
+    }
+
+    private boolean isStale(Snapshot snapshot) {
+        if (!reloadAll && changed.isEmpty()) {
+            return false;
+        }
+        return System.nanoTime() - snapshot.builtAtNanos() >= minRebuildInterval.toNanos();
+    }
+
+    private Snapshot rebuild() {
+        long start = System.nanoTime();
+        if (reloadAll || fragments == null) {
+            reloadAll = false;
+            changed.clear();
+            fragments = loadAll();
+        } else {
+            List<Long> ids = new ArrayList<>(changed);
+            changed.removeAll(ids);
+            Map<Long, Book> books = new HashMap<>();
+            bookRepository.findAllById(ids).forEach(book -> books.put(book.getId(), book));
+            for (Long id : ids) {
+                Book book = books.get(id);
+                if (book == null) {
+                    fragments.remove(id);
+                } else {
+                    fragments.put(id, serialize(book));
+                }
+            }
+        }
+
+        int size = fragments.size() + 1;
+        for (byte[] fragment : fragments.values()) {
+            size += fragment.length + 1;
+        }
+        ByteArrayOutputStream json = new ByteArrayOutputStream(size);
+        json.write('[');
+        boolean first = true;
+        for (byte[] fragment : fragments.values()) {
+            if (!first) {
+                json.write(',');
+            }
+            json.writeBytes(fragment);
+            first = false;
+        }
+        json.write(']');
+        byte[] body = json.toByteArray();
+        Snapshot snapshot = new Snapshot('"' + hash(body) + '"', body, gzip(body), fragments.size(), System.nanoTime());
+        log.info("Built catalog snapshot of {} books ({} bytes, {} gzipped) in {} ms", snapshot.books(),
+                body.length, snapshot.gzip().length, (System.nanoTime() - start) / 1_000_000);
+        return snapshot;
+    }
+
+    private SortedMap<Long, byte[]> loadAll() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> {
+            SortedMap<Long, byte[]> loaded = new TreeMap<>();
+            try (Stream<Book> books = bookRepository.findBy(Specification.<Book>allOf(List.of()),
+                    query -> query.sortBy(Sort.by("id")).stream())) {
+                Iterator<Book> iterator = books.iterator();
+                while (iterator.hasNext()) {
+                    Book book = iterator.next();
+                    loaded.put(book.getId(), serialize(book));
+                    if (loaded.size() % CLEAR_EVERY == 0) {
+                        entityManager.clear();
+                    }
+                }
+            }
+            return loaded;
+        });
+    }
+
+    private byte[] serialize(Book book) {
+        try {
+            return objectMapper.writeValueAsBytes(book);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize book " + book.getId(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 1 << 16) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        }) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String hash(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.model.Book;
+import com.example.Library_Management.recommend.ContentIndex;
+import com.example.Library_Management.repository.BookRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Content-based recommendations answered from an in-memory TF-IDF neighbour index over book
+ * title, author and publisher. The index is built in the background at startup, patched when a
+ * book is saved or deleted, and rebuilt nightly to compact deletions and refresh IDF weights.
+ */
+@Slf4j
+@Service
+public class ContentRecommendationService {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Value("${recommendation.content.neighbours:20}")
+    private int neighbourCount;
+
+    @Value("${recommendation.content.max-postings:5000}")
+    private int maxPostings;
+
+    @Value("${recommendation.content.parallelism:0}")
+    private int parallelism;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Changes made while a rebuild is reading the catalog, replayed onto the new index
+    private final List<Consumer<ContentIndex>> pendingChanges = new ArrayList<>();
+    private ContentIndex index;
+    private ForkJoinPool pool;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread thread = new Thread(this::rebuild, "content-index-build");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return index != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(cron = "${recommendation.content.rebuild-cron:0 0 3 * * *}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            List<ContentIndex.Document> documents = new ArrayList<>();
+            for (Object[] row : bookRepository.findAllForContentIndex()) {
+                String title = (String) row[1];
+                documents.add(new ContentIndex.Document((Long) row[0], title, text(title, (String) row[2], (String) row[3])));
+            }
+            ContentIndex rebuilt = ContentIndex.build(documents, neighbourCount, maxPostings, pool());
+
+            lock.writeLock().lock();
+            try {
+                pendingChanges.forEach(change -> change.accept(rebuilt));
+                pendingChanges.clear();
+                index = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Built content index for {} books in {} ms", rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.error("Failed to build content index", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    public void onBookSaved(Book book) {
+        ContentIndex.Document document = new ContentIndex.Document(book.getId(), book.getTitle(),
+                text(book.getTitle(), book.getAuthor(), book.getPublisher()));
+        apply(index -> index.add(document));
+    }
+
+    public void onBookDeleted(Long bookId) {
+        apply(index -> index.remove(bookId));
+    }
+
+    /**
+     * Ids of the books most similar to the given one, skipping any with its own title or a title
+     * already listed.
+     */
+    public List<Long> recommendIds(Long bookId, int limit) {
+        lock.readLock().lock();
+        try {
+            if (index == null) {
+                throw new IllegalStateException("Content index is not built yet");
+            }
+            String title = index.title(bookId);
+            Set<String> titles = new HashSet<>();
+            List<Long> ids = new ArrayList<>();
+            for (ContentIndex.Neighbour neighbour : index.neighbours(bookId)) {
+                if (ids.size() == limit) {
+                    break;
+                }
+                if (neighbour.title() != null && !neighbour.title().equals(title) && titles.add(neighbour.title())) {
+                    ids.add(neighbour.bookId());
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<ContentIndex> change) {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                change.accept(index);
+            }
+            if (rebuilding.get()) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            pool = parallelism > 0 ? new ForkJoinPool(parallelism) : new ForkJoinPool();
+        }
+        return pool;
+    }
+
+    private static String text(String title, String author, String publisher) {
+        return (title == null ? "" : title) + " " + (author == null ? "" : author) + " " + (publisher == null ? "" : publisher);
+    }
+}
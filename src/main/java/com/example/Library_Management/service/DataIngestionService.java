@@ -1,18 +1,26 @@
 package com.example.Library_Management.service;
 
+import com.example.Library_Management.ingest.BookCrossingReader;
+import com.example.Library_Management.ingest.IngestionProgress;
 import com.example.Library_Management.model.Book;
+import com.example.Library_Management.model.IngestionJob;
 import com.example.Library_Management.model.Rating;
 import com.example.Library_Management.repository.BookRepository;
-import com.example.Library_Management.repository.RatingRepository;
+import com.example.Library_Management.repository.IngestionJobRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.util.HashSet;
-import java.util.Optional;
-import java.util.Set;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Slf4j
 @Service
@@ -22,76 +30,179 @@ public class DataIngestionService {
     private BookRepository bookRepository;
 
     @Autowired
-    private RatingRepository ratingRepository;
-
-    private static final int RECORD_LIMIT = 1000;
-    private static final int MAX_LINES = 10000;
-
-    public void ingestData(String filePath) throws Exception {
-        Set<String> uniqueIsbns = new HashSet<>();
-        int bookCount = 0;
-        int ratingCount = 0;
-        int lineNumber = 0;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            br.readLine(); // Skip header
-            while ((line = br.readLine()) != null && lineNumber <= MAX_LINES) {
-                lineNumber++;
-                String[] data = line.split(";", -1);
-
-                if (data.length >= 6) {
-                    try {
-                        String isbn = clean(data[0]);
-                        String ratingStr = clean(data[1]);
-                        String title = data[2].isBlank() ? "Unknown" : data[2].trim();
-                        String author = data[3].isBlank() ? "Other" : data[3].trim();
-                        String yearStr = clean(data[4]);
-                        String publisher = data[5].isBlank() ? "Other" : data[5].trim();
-
-                        // Save Book
-                        Book book = bookRepository.findByIsbn(isbn).orElse(null);
-                        if (book == null && bookCount < RECORD_LIMIT) {
-                            book = new Book();
-                            book.setIsbn(isbn);
-                            book.setTitle(title);
-                            book.setAuthor(author);
-                            book.setYear(yearStr.matches("\\d+") ? Integer.parseInt(yearStr) : 0);
-                            book.setPublisher(publisher);
-                            book.setTotalCopies(10);
-                            book.setAvailableCopies(10);
-                            book = bookRepository.save(book);
-                            bookCount++;
-                        }
-
-                        // Save Rating
-                        if (book != null && ratingCount < RECORD_LIMIT) {
-                            Rating rating = new Rating();
-                            rating.setBook(book);
-                            rating.setRating(Integer.parseInt(ratingStr));
-                            ratingRepository.save(rating);
-                            ratingCount++;
-                        }
-
-                    } catch (Exception ex) {
-                        log.warn("Skipping invalid record at line {}: {} (Error: {})", lineNumber, line, ex.getMessage());
-                    }
-                } else {
-                    log.warn("Malformed line at {}: {}", lineNumber, line);
+    private IngestionJobRepository jobRepository;
+
+    @Autowired
+    private RatingAggregateService ratingAggregateService;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Rows written per transaction; keep it a multiple of hibernate.jdbc.batch_size
+    private static final int CHUNK_SIZE = 5000;
+    private static final int DEFAULT_COPIES = 10;
+
+    /**
+     * Ingests the job's file starting at its last checkpoint. Each chunk of rows is committed
+     * together with the job's new byte offset and counters, so a crash or stop loses at most the
+     * uncommitted chunk and a later run resumes right after the last committed one.
+     */
+    public void ingest(IngestionJob job, IngestionProgress progress) throws Exception {
+        Map<String, Long> isbnIndex = loadIsbnIndex();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<BookRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        long rejected = progress.getRejected();
+
+        try (BookCrossingReader reader = new BookCrossingReader(Path.of(job.getFilePath()))) {
+            if (job.getByteOffset() == 0) {
+                reader.next(); // Skip header
+            } else {
+                reader.seek(job.getByteOffset(), job.getLinesRead() + 1);
+            }
+            while (!progress.isStopRequested() && reader.next()) {
+                BookRow row = parse(reader);
+                if (row == null) {
+                    rejected++;
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(job.getId(), chunk, isbnIndex, reader, rejected, transactionTemplate, progress);
+                    chunk.clear();
                 }
             }
-            if (lineNumber > MAX_LINES) {
-                log.warn("Stopped processing at max line limit: {}", MAX_LINES);
+            if (!progress.isStopRequested()) {
+                // Also records trailing rejects and the final offset when the chunk is empty
+                writeChunk(job.getId(), chunk, isbnIndex, reader, rejected, transactionTemplate, progress);
             }
-
-            log.info("Ingested {} books and {} ratings successfully.", bookCount, ratingCount);
         } catch (Exception e) {
-            log.error("Error processing file: {}", filePath, e);
-            throw new Exception("Error processing file: " + filePath, e);
+            log.error("Error processing file: {} (job {}, last checkpoint at line {})",
+                    job.getFilePath(), job.getId(), progress.getLinesRead(), e);
+            throw new Exception("Error processing file: " + job.getFilePath(), e);
+        }
+
+        log.info("Job {}: {} books and {} ratings from {} lines in {} ms ({} rows/s, {} rejected).",
+                job.getId(), progress.getBooksInserted(), progress.getRatingsInserted(), progress.getLinesRead(),
+                progress.getElapsedMillis(), Math.round(progress.getRowsPerSecond()), progress.getRejected());
+    }
+
+    private Map<String, Long> loadIsbnIndex() {
+        List<Object[]> rows = bookRepository.findAllIdAndIsbn();
+        Map<String, Long> index = new HashMap<>(Math.max(16, rows.size() * 2));
+        for (Object[] row : rows) {
+            if (row[1] != null) {
+                index.put((String) row[1], (Long) row[0]);
+            }
+        }
+        return index;
+    }
+
+    private void writeChunk(Long jobId, List<BookRow> chunk, Map<String, Long> isbnIndex, BookCrossingReader reader,
+                            long rejected, TransactionTemplate transactionTemplate, IngestionProgress progress) {
+        // New ids only become visible to later chunks once this chunk has committed
+        Map<String, Long> created = new HashMap<>();
+        Map<String, Long> found = new HashMap<>();
+        long[] ratedBookIds = new long[chunk.size()];
+        long byteOffset = reader.position();
+        long linesRead = reader.lineNumber() - 1; // Header line is not counted
+        long booksInserted = progress.getBooksInserted();
+        long ratingsInserted = progress.getRatingsInserted() + chunk.size();
+        transactionTemplate.executeWithoutResult(status -> {
+            insertNewBooks(chunk, isbnIndex, created, found);
+            for (int i = 0; i < chunk.size(); i++) {
+                String isbn = chunk.get(i).isbn();
+                Long bookId = isbnIndex.get(isbn);
+                if (bookId == null) {
+                    bookId = created.containsKey(isbn) ? created.get(isbn) : found.get(isbn);
+                }
+                Rating rating = new Rating();
+                rating.setBook(entityManager.getReference(Book.class, bookId));
+                rating.setRating(chunk.get(i).rating());
+                entityManager.persist(rating);
+                ratedBookIds[i] = bookId;
+            }
+            entityManager.flush();
+            jobRepository.checkpoint(jobId, byteOffset, linesRead,
+                    booksInserted + created.size(), ratingsInserted, rejected);
+            entityManager.clear();
+        });
+        isbnIndex.putAll(created);
+        isbnIndex.putAll(found);
+        // The chunk is committed, so listings can show its books: move the catalog version on
+        created.values().forEach(catalogSnapshotService::markChanged);
+        for (int i = 0; i < chunk.size(); i++) {
+            ratingAggregateService.recordRating(ratedBookIds[i], chunk.get(i).rating());
+        }
+        progress.checkpoint(byteOffset, linesRead, booksInserted + created.size(), ratingsInserted, rejected);
+    }
+
+    /**
+     * Inserts the chunk's books whose ISBN is not in the index. Another job may have added some of
+     * them since the index was loaded; those are skipped by the insert and looked up into found.
+     * ISBNs are inserted in sorted order so jobs meeting the same new ISBNs cannot deadlock.
+     */
+    private void insertNewBooks(List<BookRow> chunk, Map<String, Long> isbnIndex,
+                                Map<String, Long> created, Map<String, Long> found) {
+        TreeMap<String, BookRow> missing = new TreeMap<>();
+        for (BookRow row : chunk) {
+            if (!isbnIndex.containsKey(row.isbn())) {
+                missing.putIfAbsent(row.isbn(), row);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        int size = missing.size();
+        String[] isbns = new String[size];
+        String[] titles = new String[size];
+        String[] authors = new String[size];
+        Integer[] years = new Integer[size];
+        String[] publishers = new String[size];
+        int i = 0;
+        for (BookRow row : missing.values()) {
+            isbns[i] = row.isbn();
+            titles[i] = row.title();
+            authors[i] = row.author();
+            years[i] = row.year();
+            publishers[i] = row.publisher();
+            i++;
+        }
+        for (Object[] row : bookRepository.insertMissing(isbns, titles, authors, years, publishers, DEFAULT_COPIES)) {
+            created.put((String) row[1], ((Number) row[0]).longValue());
+        }
+        if (created.size() < size) {
+            List<String> skipped = missing.keySet().stream().filter(isbn -> !created.containsKey(isbn)).toList();
+            for (Object[] row : bookRepository.findIdAndIsbnByIsbnIn(skipped)) {
+                found.put((String) row[1], (Long) row[0]);
+            }
+        }
+    }
+
+    private BookRow parse(BookCrossingReader reader) {
+        long lineNumber = reader.lineNumber();
+        if (reader.fieldCount() < 6) {
+            log.warn("Malformed line at {}: {}", lineNumber, reader.line());
+            return null;
+        }
+        int rating = reader.parseInt(1, -1);
+        if (rating < 0) {
+            log.warn("Skipping invalid record at line {}: {} (Error: invalid rating)", lineNumber, reader.line());
+            return null;
         }
+        String isbn = reader.cleaned(0);
+        String title = reader.isBlank(2) ? "Unknown" : reader.trimmed(2);
+        String author = reader.isBlank(3) ? "Other" : reader.trimmed(3);
+        int year = reader.parseInt(4, 0);
+        String publisher = reader.isBlank(5) ? "Other" : reader.trimmed(5);
+        return new BookRow(isbn, rating, title, author, year, publisher);
     }
 
-    private String clean(String input) {
-        return input == null ? "" : input.replaceAll("[\"']", "").trim();
+    private record BookRow(String isbn, int rating, String title, String author, int year, String publisher) {
     }
 }
@@ -0,0 +1,297 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.model.Loan;
+import com.example.Library_Management.repository.LoanRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires loan reminders at the moment they are due instead of scanning the loan table once a day.
+ * Every open loan has exactly one pending event in a delay queue (reminder the day before, then
+ * due today, then overdue once a week), so scheduling and firing are O(log n). The queue is filled
+ * from the open loans at startup and kept current by {@link LoanService} on lend and return.
+ */
+@Slf4j
+@Service
+public class DueDateScheduler {
+
+    public enum Kind { REMINDER, DUE, OVERDUE }
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${loans.due-scheduler.reminder-before:1d}")
+    private Duration reminderBefore;
+
+    @Value("${loans.due-scheduler.overdue-every:7d}")
+    private Duration overdueEvery;
+
+    @Value("${loans.due-scheduler.batch-size:500}")
+    private int batchSize;
+
+    private final DelayQueue<DueEvent> queue = new DelayQueue<>();
+    // The one live event per open loan; queued events no longer in here were cancelled
+    private final Map<Long, DueEvent> scheduled = new ConcurrentHashMap<>();
+    // Loans returned while the startup load was reading, so it does not bring them back
+    private final Set<Long> returnedDuringLoad = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+    private Thread worker;
+    private final Map<Kind, Counter> firedCounters = new EnumMap<>(Kind.class);
+
+    @PostConstruct
+    public void init() {
+        for (Kind kind : Kind.values()) {
+            firedCounters.put(kind, Counter.builder("library.loans.due.fired")
+                    .description("Due-date notifications fired")
+                    .tag("kind", kind.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        meterRegistry.gauge("library.loans.due.scheduled", scheduled, Map::size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnStartup() {
+        worker = new Thread(() -> {
+            load();
+            run();
+        }, "due-date-scheduler");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Schedules the next notification for an open loan, replacing any earlier one.
+     */
+    public void schedule(Long loanId, LocalDateTime dueDate) {
+        DueEvent event = next(loanId, dueDate, System.currentTimeMillis());
+        scheduled.put(loanId, event);
+        queue.add(event);
+    }
+
+    public void cancel(Long loanId) {
+        if (loading) {
+            returnedDuringLoad.add(loanId);
+        }
+        scheduled.remove(loanId);
+    }
+
+    public int size() {
+        return scheduled.size();
+    }
+
+    /**
+     * Schedules every open loan. Loans lent while this runs are already scheduled and kept.
+     * Notifications that fell due while the application was down are sent straight away.
+     */
+    public void load() {
+        loading = true;
+        try {
+            long now = System.currentTimeMillis();
+            int loaded = 0;
+            for (Object[] row : loanRepository.findOpenLoanIdAndDueDate()) {
+                Long loanId = (Long) row[0];
+                LocalDateTime dueDate = (LocalDateTime) row[1];
+                if (dueDate == null || returnedDuringLoad.contains(loanId)) {
+                    continue;
+                }
+                DueEvent event = missedOrNext(loanId, dueDate, now);
+                if (scheduled.putIfAbsent(loanId, event) == null) {
+                    queue.add(event);
+                    loaded++;
+                }
+            }
+            log.info("Scheduled due-date notifications for {} open loans", loaded);
+        } finally {
+            loading = false;
+            returnedDuringLoad.clear();
+        }
+    }
+
+    private void run() {
+        List<DueEvent> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                fire(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // Live events go back on the queue and are retried once the failure clears
+                log.error("Due-date notifications failed; retrying in a minute", e);
+                long retryAt = System.currentTimeMillis() + 60_000;
+                for (DueEvent event : batch) {
+                    DueEvent retry = new DueEvent(event.loanId, event.dueDate, event.kind, retryAt);
+                    if (scheduled.replace(event.loanId, event, retry)) {
+                        queue.add(retry);
+                    }
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Sends the notifications for a batch of expired events and schedules each loan's next one.
+     */
+    void fire(List<DueEvent> events) {
+        Map<Long, DueEvent> live = new HashMap<>();
+        for (DueEvent event : events) {
+            if (scheduled.get(event.loanId) == event) {
+                live.put(event.loanId, event);
+            }
+        }
+        if (live.isEmpty()) {
+            return;
+        }
+        List<SimpleMailMessage> messages = new ArrayList<>();
+        Set<Long> open = new HashSet<>();
+        for (Loan loan : loanRepository.findByIdIn(live.keySet())) {
+            DueEvent event = live.get(loan.getId());
+            if (loan.getReturnDate() != null) {
+                continue;
+            }
+            open.add(loan.getId());
+            String email = loan.getUser().getEmail();
+            if (email != null && !email.isEmpty()) {
+                messages.add(message(loan, event.kind));
+            }
+            firedCounters.get(event.kind).increment();
+        }
+        emailService.sendAll(messages);
+
+        long now = System.currentTimeMillis();
+        for (DueEvent event : live.values()) {
+            if (!open.contains(event.loanId)) {
+                scheduled.remove(event.loanId, event);
+                continue;
+            }
+            DueEvent next = next(event.loanId, event.dueDate, Math.max(now, event.fireAt));
+            if (scheduled.replace(event.loanId, event, next)) {
+                queue.add(next);
+            }
+        }
+    }
+
+    /**
+     * The first notification for the loan strictly after the given time.
+     */
+    DueEvent next(Long loanId, LocalDateTime dueDate, long after) {
+        long due = dueDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long reminder = due - reminderBefore.toMillis();
+        if (after < reminder) {
+            return new DueEvent(loanId, dueDate, Kind.REMINDER, reminder);
+        }
+        if (after < due) {
+            return new DueEvent(loanId, dueDate, Kind.DUE, due);
+        }
+        long every = overdueEvery.toMillis();
+        long periods = (after - due) / every + 1;
+        return new DueEvent(loanId, dueDate, Kind.OVERDUE, due + periods * every);
+    }
+
+    /**
+     * For a loan found open at startup: the latest notification it should already have had, due
+     * now, or else its next one. Sent notifications are not recorded, so a restart may repeat the
+     * latest one rather than drop it.
+     */
+    DueEvent missedOrNext(Long loanId, LocalDateTime dueDate, long now) {
+        long due = dueDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (now < due - reminderBefore.toMillis()) {
+            return next(loanId, dueDate, now);
+        }
+        Kind kind;
+        if (now < due) {
+            kind = Kind.REMINDER;
+        } else if (dueDate.toLocalDate().equals(LocalDateTime.now().toLocalDate())) {
+            kind = Kind.DUE;
+        } else {
+            kind = Kind.OVERDUE;
+        }
+        return new DueEvent(loanId, dueDate, kind, now);
+    }
+
+    private static SimpleMailMessage message(Loan loan, Kind kind) {
+        String name = loan.getUser().getFullName() != null ? loan.getUser().getFullName() : loan.getUser().getUsername();
+        String book = String.format("'%s' (ID: %d)", loan.getBook().getTitle(), loan.getBook().getId());
+        String subject;
+        String text;
+        switch (kind) {
+            case REMINDER -> {
+                subject = "Library Book Due Tomorrow";
+                text = "Your loan for the book " + book + " is due on " + loan.getDueDate().toLocalDate() + ".";
+            }
+            case DUE -> {
+                subject = "Library Book Due Today";
+                text = "Your loan for the book " + book + " is due today. Please return it or it will become overdue.";
+            }
+            default -> {
+                long days = ChronoUnit.DAYS.between(loan.getDueDate(), LocalDateTime.now());
+                subject = "Library Book Overdue Notice";
+                text = "Your loan for the book " + book + " is " + days + " days overdue. Please return it as soon as possible.";
+            }
+        }
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(loan.getUser().getEmail());
+        message.setSubject(subject);
+        message.setText("Dear " + name + ",\n\n" + text + "\n\nThank you!\nLibrary Management System");
+        return message;
+    }
+
+    static final class DueEvent implements Delayed {
+        final Long loanId;
+        final LocalDateTime dueDate;
+        final Kind kind;
+        final long fireAt;
+
+        DueEvent(Long loanId, LocalDateTime dueDate, Kind kind, long fireAt) {
+            this.loanId = loanId;
+            this.dueDate = dueDate;
+            this.kind = kind;
+            this.fireAt = fireAt;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(fireAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(fireAt, ((DueEvent) other).fireAt);
+        }
+    }
+}
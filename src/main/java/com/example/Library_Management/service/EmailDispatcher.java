@@ -0,0 +1,264 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.model.OutboxEmail;
+import com.example.Library_Management.repository.OutboxEmailRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers the email outbox. Due messages are claimed in batches with a short locking transaction
+ * that pushes their next attempt past a lease, so a crashed dispatcher's rows come back on their
+ * own. Each batch is sent over one SMTP connection, several batches at a time, under a shared
+ * messages-per-second limit. Failures are retried with exponential backoff and dead-lettered after
+ * max-attempts.
+ */
+@Slf4j
+@Service
+public class EmailDispatcher {
+
+    @Autowired
+    private OutboxEmailRepository outboxEmailRepository;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${email.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${email.outbox.parallelism:2}")
+    private int parallelism;
+
+    @Value("${email.outbox.max-per-second:20}")
+    private double maxPerSecond;
+
+    @Value("${email.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${email.outbox.initial-backoff:30s}")
+    private Duration initialBackoff;
+
+    @Value("${email.outbox.max-backoff:1h}")
+    private Duration maxBackoff;
+
+    @Value("${email.outbox.lease:5m}")
+    private Duration lease;
+
+    @Value("${email.outbox.retention:7d}")
+    private Duration retention;
+
+    private ExecutorService senders;
+    private TransactionTemplate transactionTemplate;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong oldestAgeSeconds = new AtomicLong();
+    private long nextSendNanos; // Guarded by this; start of the next free rate-limit slot
+    private Counter sentCounter;
+    private Counter retriedCounter;
+    private Counter deadCounter;
+    private Timer batchTimer;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "email-dispatch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        nextSendNanos = System.nanoTime();
+        sentCounter = Counter.builder("library.email.sent")
+                .description("Outbox messages delivered")
+                .register(meterRegistry);
+        retriedCounter = Counter.builder("library.email.retried")
+                .description("Failed deliveries scheduled for another attempt")
+                .register(meterRegistry);
+        deadCounter = Counter.builder("library.email.dead")
+                .description("Messages dead-lettered after the last attempt failed")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("library.email.batch")
+                .description("Sending one batch over a single SMTP connection")
+                .register(meterRegistry);
+        meterRegistry.gauge("library.email.outbox.depth", depth);
+        meterRegistry.gauge("library.email.outbox.oldest.age.seconds", oldestAgeSeconds);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.poll-ms:1000}")
+    public void scheduledDrain() {
+        drain();
+    }
+
+    @Scheduled(cron = "${email.outbox.purge-cron:0 15 4 * * *}")
+    public void purgeSent() {
+        int purged = transactionTemplate.execute(status ->
+                outboxEmailRepository.deleteSentBefore(LocalDateTime.now().minus(retention)));
+        log.info("Purged {} sent outbox messages", purged);
+    }
+
+    /**
+     * Sends everything that is due and returns how many messages were attempted; returns 0 at once
+     * if another drain is running.
+     */
+    public int drain() {
+        if (!draining.compareAndSet(false, true)) {
+            return 0;
+        }
+        int attempted = 0;
+        try {
+            while (true) {
+                List<Future<?>> sends = new ArrayList<>(parallelism);
+                for (int i = 0; i < parallelism; i++) {
+                    List<OutboxEmail> batch = claim();
+                    if (batch.isEmpty()) {
+                        break;
+                    }
+                    attempted += batch.size();
+                    sends.add(senders.submit(() -> send(batch)));
+                }
+                if (sends.isEmpty()) {
+                    break;
+                }
+                for (Future<?> send : sends) {
+                    send.get();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Email dispatch failed", e.getCause());
+        } finally {
+            draining.set(false);
+            refreshGauges();
+        }
+        return attempted;
+    }
+
+    private List<OutboxEmail> claim() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEmail> batch = outboxEmailRepository.lockDue(now, PageRequest.of(0, batchSize));
+            if (!batch.isEmpty()) {
+                outboxEmailRepository.lease(batch.stream().map(OutboxEmail::getId).toList(), now.plus(lease));
+            }
+            return batch;
+        });
+    }
+
+    private void send(List<OutboxEmail> batch) {
+        Map<SimpleMailMessage, OutboxEmail> byMessage = new IdentityHashMap<>();
+        for (OutboxEmail email : batch) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(email.getRecipient());
+            message.setSubject(email.getSubject());
+            message.setText(email.getBody());
+            byMessage.put(message, email);
+        }
+        Map<OutboxEmail, String> failures = new IdentityHashMap<>();
+        try {
+            awaitRate(batch.size());
+            batchTimer.record(() -> mailSender.send(byMessage.keySet().toArray(new SimpleMailMessage[0])));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return; // The lease runs out and the batch is picked up again
+        } catch (MailSendException e) {
+            // Failed messages are only listed once the connection was established
+            if (e.getFailedMessages().isEmpty()) {
+                batch.forEach(email -> failures.put(email, e.getMessage()));
+            }
+            e.getFailedMessages().forEach((message, cause) ->
+                    failures.put(byMessage.get(message), cause.getMessage()));
+        } catch (MailException e) {
+            batch.forEach(email -> failures.put(email, e.getMessage()));
+        }
+        record(batch, failures);
+    }
+
+    private void record(List<OutboxEmail> batch, Map<OutboxEmail, String> failures) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> sent = batch.stream().filter(email -> !failures.containsKey(email)).map(OutboxEmail::getId).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sent.isEmpty()) {
+                outboxEmailRepository.markSent(sent, now);
+            }
+            failures.forEach((email, error) -> {
+                int attempts = email.getAttempts() + 1;
+                boolean dead = attempts >= maxAttempts;
+                outboxEmailRepository.markFailed(email.getId(),
+                        dead ? OutboxEmail.Status.DEAD : OutboxEmail.Status.PENDING,
+                        attempts, dead ? null : now.plus(backoff(attempts)), error);
+                if (dead) {
+                    log.warn("Dead-lettered email {} to {} after {} attempts: {}", email.getId(), email.getRecipient(), attempts, error);
+                }
+            });
+        });
+        sentCounter.increment(sent.size());
+        failures.keySet().forEach(email -> (email.getAttempts() + 1 >= maxAttempts ? deadCounter : retriedCounter).increment());
+    }
+
+    /**
+     * Delay before the next attempt: the initial backoff doubled per earlier failure, capped.
+     */
+    Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return delay.compareTo(maxBackoff) > 0 || delay.isNegative() ? maxBackoff : delay;
+    }
+
+    private void awaitRate(int messages) throws InterruptedException {
+        if (maxPerSecond <= 0) {
+            return;
+        }
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(nextSendNanos, now);
+            nextSendNanos = start + (long) (messages * 1_000_000_000L / maxPerSecond);
+            wait = start - now;
+        }
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    private void refreshGauges() {
+        depth.set(outboxEmailRepository.countByStatus(OutboxEmail.Status.PENDING));
+        LocalDateTime oldest = outboxEmailRepository.findOldestPendingCreatedAt();
+        oldestAgeSeconds.set(oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toSeconds());
+    }
+}
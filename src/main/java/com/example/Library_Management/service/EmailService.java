@@ -1,24 +1,49 @@
 package com.example.Library_Management.service;
-import com.example.Library_Management.repository.UserRepository;
+import com.example.Library_Management.model.OutboxEmail;
+import com.example.Library_Management.repository.OutboxEmailRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Queues mail in the outbox table, inside the caller's transaction when there is one, so a message
+ * is stored exactly when the change that caused it commits. {@link EmailDispatcher} delivers it.
+ */
 @Service
 public class EmailService {
     @Autowired
-    private JavaMailSender mailSender;
+    private OutboxEmailRepository outboxEmailRepository;
 
-    @Autowired
-    private UserRepository userRepository;
+    @Transactional
+    public OutboxEmail sendEmail(String to, String subject, String body) {
+        return outboxEmailRepository.save(pending(to, subject, body, LocalDateTime.now()));
+    }
 
-    public void sendEmail(String to, String subject, String body) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(body);
+    @Transactional
+    public void sendAll(List<SimpleMailMessage> messages) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEmail> emails = new ArrayList<>(messages.size());
+        for (SimpleMailMessage message : messages) {
+            for (String to : message.getTo()) {
+                emails.add(pending(to, message.getSubject(), message.getText(), now));
+            }
+        }
+        outboxEmailRepository.saveAll(emails);
+    }
 
-        mailSender.send(message);
+    private static OutboxEmail pending(String to, String subject, String body, LocalDateTime now) {
+        OutboxEmail email = new OutboxEmail();
+        email.setRecipient(to);
+        email.setSubject(subject);
+        email.setBody(body);
+        email.setStatus(OutboxEmail.Status.PENDING);
+        email.setCreatedAt(now);
+        email.setNextAttemptAt(now);
+        return email;
     }
 }
@@ -0,0 +1,263 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.dto.IngestionReport;
+import com.example.Library_Management.exception.ResourceNotFoundException;
+import com.example.Library_Management.ingest.IngestionProgress;
+import com.example.Library_Management.model.IngestionJob;
+import com.example.Library_Management.repository.IngestionJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs data ingestion as background jobs on a small dedicated pool, so imports never hold
+ * request-serving threads. Jobs left QUEUED or RUNNING by a crash or shutdown are resumed from
+ * their last checkpoint when the application starts.
+ */
+@Slf4j
+@Service
+public class IngestionJobService {
+
+    @Autowired
+    private IngestionJobRepository jobRepository;
+
+    @Autowired
+    private DataIngestionService dataIngestionService;
+
+    @Autowired
+    private ContentRecommendationService contentRecommendationService;
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Value("${ingestion.max-concurrent-jobs:1}")
+    private int maxConcurrentJobs;
+
+    @Value("${ingestion.max-queued-jobs:4}")
+    private int maxQueuedJobs;
+
+    private ThreadPoolExecutor executor;
+    private final Map<Long, IngestionProgress> activeJobs = new ConcurrentHashMap<>();
+    private volatile boolean shuttingDown;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueuedJobs),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ingestion-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        shuttingDown = true;
+        activeJobs.values().forEach(IngestionProgress::stop);
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        for (IngestionJob job : jobRepository.findByStatusInOrderByIdAsc(
+                EnumSet.of(IngestionJob.Status.QUEUED, IngestionJob.Status.RUNNING))) {
+            log.info("Resuming ingestion job {} at byte {} of {}", job.getId(), job.getByteOffset(), job.getFilePath());
+            try {
+                schedule(job);
+            } catch (RejectedExecutionException e) {
+                markFailed(job.getId(), "Could not be resumed: ingestion queue is full");
+            }
+        }
+    }
+
+    /**
+     * Creates a job for the file and queues it. Throws {@link RejectedExecutionException} when the
+     * maximum number of running and queued jobs has been reached.
+     */
+    public IngestionReport submit(String filePath) throws Exception {
+        Path path = Path.of(filePath);
+        if (!Files.isRegularFile(path) || !Files.isReadable(path)) {
+            throw new IllegalArgumentException("File not found or not readable: " + filePath);
+        }
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw new RejectedExecutionException("Too many ingestion jobs queued");
+        }
+        IngestionJob job = new IngestionJob();
+        job.setFilePath(filePath);
+        job.setFileSize(Files.size(path));
+        job.setStatus(IngestionJob.Status.QUEUED);
+        job.setCreatedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+        try {
+            schedule(job);
+        } catch (RejectedExecutionException e) {
+            jobRepository.delete(job);
+            throw e;
+        }
+        return toReport(job, activeJobs.get(job.getId()));
+    }
+
+    public IngestionReport getStatus(Long jobId) {
+        return toReport(getJob(jobId), activeJobs.get(jobId));
+    }
+
+    public IngestionReport cancel(Long jobId) {
+        IngestionJob job = getJob(jobId);
+        IngestionProgress progress = activeJobs.get(jobId);
+        if (progress != null) {
+            progress.cancel();
+        } else if (job.getStatus() == IngestionJob.Status.FAILED) {
+            job.setStatus(IngestionJob.Status.CANCELLED);
+            job = jobRepository.save(job);
+        } else {
+            throw new IllegalStateException("Job " + jobId + " is " + job.getStatus() + " and cannot be cancelled");
+        }
+        return toReport(job, progress);
+    }
+
+    /**
+     * Re-queues a failed or cancelled job; it continues from its last committed checkpoint.
+     */
+    public IngestionReport resume(Long jobId) {
+        IngestionJob job = getJob(jobId);
+        if (job.getStatus() != IngestionJob.Status.FAILED && job.getStatus() != IngestionJob.Status.CANCELLED) {
+            throw new IllegalStateException("Job " + jobId + " is " + job.getStatus() + " and cannot be resumed");
+        }
+        job.setStatus(IngestionJob.Status.QUEUED);
+        job.setError(null);
+        job.setFinishedAt(null);
+        job = jobRepository.save(job);
+        schedule(job);
+        return toReport(job, activeJobs.get(jobId));
+    }
+
+    private void schedule(IngestionJob job) {
+        IngestionProgress progress = new IngestionProgress(job);
+        activeJobs.put(job.getId(), progress);
+        try {
+            executor.execute(() -> run(job.getId(), progress));
+        } catch (RejectedExecutionException e) {
+            activeJobs.remove(job.getId());
+            throw e;
+        }
+    }
+
+    private void run(Long jobId, IngestionProgress progress) {
+        LocalDateTime runStart = LocalDateTime.now();
+        long booksBefore = progress.getBooksInserted();
+        IngestionJob.Status outcome;
+        String error = null;
+        try {
+            IngestionJob job = getJob(jobId);
+            if (progress.isStopRequested()) {
+                outcome = finalStatus(progress);
+            } else {
+                job.setStatus(IngestionJob.Status.RUNNING);
+                if (job.getStartedAt() == null) {
+                    job.setStartedAt(runStart);
+                }
+                job = jobRepository.save(job);
+                progress.start();
+                dataIngestionService.ingest(job, progress);
+                outcome = finalStatus(progress);
+            }
+        } catch (Exception e) {
+            log.error("Ingestion job {} failed", jobId, e);
+            outcome = IngestionJob.Status.FAILED;
+            error = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+        }
+
+        try {
+            // Reload: the counters were advanced by the chunk checkpoints
+            IngestionJob job = getJob(jobId);
+            job.setStatus(outcome);
+            job.setError(error);
+            job.setElapsedMillis(job.getElapsedMillis() + Duration.between(runStart, LocalDateTime.now()).toMillis());
+            if (outcome != IngestionJob.Status.QUEUED) {
+                job.setFinishedAt(LocalDateTime.now());
+            }
+            jobRepository.save(job);
+        } finally {
+            activeJobs.remove(jobId);
+            catalogSnapshotService.reset();
+        }
+        // Ingested books bypass BookService, so refresh the in-memory indexes in one pass. Chunks
+        // committed before a cancel or failure count too; a job stopped by shutdown is indexed on
+        // the next start
+        if (progress.getBooksInserted() > booksBefore && outcome != IngestionJob.Status.QUEUED) {
+            contentRecommendationService.rebuild();
+            bookSearchService.rebuild();
+        }
+    }
+
+    private IngestionJob.Status finalStatus(IngestionProgress progress) {
+        if (progress.isCancelRequested()) {
+            return IngestionJob.Status.CANCELLED;
+        }
+        // Stopped by shutdown: leave it queued so the next start resumes it
+        return shuttingDown ? IngestionJob.Status.QUEUED : IngestionJob.Status.COMPLETED;
+    }
+
+    private void markFailed(Long jobId, String error) {
+        IngestionJob job = getJob(jobId);
+        job.setStatus(IngestionJob.Status.FAILED);
+        job.setError(error);
+        jobRepository.save(job);
+    }
+
+    private IngestionJob getJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Ingestion job not found"));
+    }
+
+    private IngestionReport toReport(IngestionJob job, IngestionProgress progress) {
+        IngestionReport report = new IngestionReport();
+        report.setJobId(job.getId());
+        report.setFilePath(job.getFilePath());
+        report.setStatus(job.getStatus().name());
+        report.setTotalBytes(job.getFileSize());
+        report.setError(job.getError());
+        if (progress != null) {
+            report.setLinesRead(progress.getLinesRead());
+            report.setBooksInserted(progress.getBooksInserted());
+            report.setRatingsInserted(progress.getRatingsInserted());
+            report.setRejected(progress.getRejected());
+            report.setBytesProcessed(progress.getByteOffset());
+            report.setElapsedMillis(job.getElapsedMillis() + progress.getElapsedMillis());
+            report.setRowsPerSecond(progress.getRowsPerSecond());
+            report.setEtaSeconds(progress.getEtaSeconds());
+        } else {
+            report.setLinesRead(job.getLinesRead());
+            report.setBooksInserted(job.getBooksInserted());
+            report.setRatingsInserted(job.getRatingsInserted());
+            report.setRejected(job.getRejected());
+            report.setBytesProcessed(job.getByteOffset());
+            report.setElapsedMillis(job.getElapsedMillis());
+            long rows = job.getBooksInserted() + job.getRatingsInserted();
+            report.setRowsPerSecond(rows * 1000.0 / Math.max(1, job.getElapsedMillis()));
+        }
+        report.setPercentComplete(job.getFileSize() == 0 ? 100.0 : report.getBytesProcessed() * 100.0 / job.getFileSize());
+        return report;
+    }
+}
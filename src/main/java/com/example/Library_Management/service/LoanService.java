@@ -1,20 +1,39 @@
 package com.example.Library_Management.service;
+import com.example.Library_Management.dto.CursorPage;
+import com.example.Library_Management.dto.LoanView;
 import com.example.Library_Management.model.Book;
 import com.example.Library_Management.model.Loan;
 import com.example.Library_Management.model.User;
 import com.example.Library_Management.repository.BookRepository;
 import com.example.Library_Management.repository.LoanRepository;
 import com.example.Library_Management.repository.UserRepository;
+import com.example.Library_Management.util.JsonStreamer;
+import com.example.Library_Management.util.KeysetPaging;
+import com.example.Library_Management.util.Transactions;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.criteria.Predicate;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class LoanService {
 
+    private static final Set<String> SORT_FIELDS = Set.of("id", "loanDate", "dueDate");
+
     @Autowired
     private LoanRepository loanRepository;
 
@@ -25,18 +44,52 @@ public class LoanService {
     private UserRepository userRepository;
 
     @Autowired
-    private EmailService emailService;
+    private PopularBooksService popularBooksService;
+
+    @Autowired
+    private DueDateScheduler dueDateScheduler;
+
+    @Autowired
+    private AlsoBorrowedService alsoBorrowedService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private JsonStreamer jsonStreamer;
 
+    @Value("${loans.active-cache.max-users:10000}")
+    private long activeCacheMaxUsers;
+
+    @Value("${loans.active-cache.expire-after-access:30m}")
+    private Duration activeCacheExpireAfterAccess;
+
+    // Open loans per user, dropped whenever that user borrows or returns
+    private Cache<Long, List<LoanView>> activeLoansByUser;
+
+    @PostConstruct
+    public void init() {
+        activeLoansByUser = Caffeine.newBuilder()
+                .maximumSize(activeCacheMaxUsers)
+                .expireAfterAccess(activeCacheExpireAfterAccess)
+                .build();
+    }
+
+    /**
+     * Takes a copy with a conditional update and records the loan in the same transaction, so
+     * concurrent borrows can neither oversell nor lose a decrement.
+     */
+    @Transactional
     public Loan lendBook(Long bookId, Long userId, int durationDays) {
-        Book book = bookRepository.findById(bookId).orElseThrow(() -> new RuntimeException("Book not found"));
         User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
 
-        if (book.getAvailableCopies() <= 0) {
+        if (bookRepository.takeCopy(bookId) == 0) {
+            if (!bookRepository.existsById(bookId)) {
+                throw new RuntimeException("Book not found");
+            }
             throw new RuntimeException("No available copies for this book");
         }
-
-        book.setAvailableCopies(book.getAvailableCopies() - 1);
-        bookRepository.save(book);
+        Book book = bookRepository.findById(bookId).orElseThrow(() -> new RuntimeException("Book not found"));
 
         Loan loan = new Loan();
         loan.setBook(book);
@@ -44,57 +97,111 @@ public class LoanService {
         loan.setLoanDate(LocalDateTime.now());
         loan.setDueDate(LocalDateTime.now().plusDays(durationDays));
 
-        return loanRepository.save(loan);
+        Loan saved = loanRepository.save(loan);
+        Transactions.afterCommit(() -> {
+            activeLoansByUser.invalidate(userId);
+            bookService.evictBook(bookId);
+            popularBooksService.recordLoan(bookId, saved.getLoanDate());
+            alsoBorrowedService.recordLoan(userId, bookId);
+            dueDateScheduler.schedule(saved.getId(), saved.getDueDate());
+        });
+        return saved;
     }
 
+    /**
+     * Closes the loan and puts the copy back in one transaction; of two concurrent returns of
+     * the same loan only one succeeds.
+     */
+    @Transactional
     public Loan returnBook(Long loanId) {
-        Loan loan = loanRepository.findById(loanId).orElseThrow(() -> new RuntimeException("Loan not found"));
-
-        if (loan.getReturnDate() != null) {
+        if (loanRepository.markReturned(loanId, LocalDateTime.now()) == 0) {
+            if (!loanRepository.existsById(loanId)) {
+                throw new RuntimeException("Loan not found");
+            }
             throw new RuntimeException("Book already returned");
         }
-
-        loan.setReturnDate(LocalDateTime.now());
-
-        Book book = loan.getBook();
-        book.setAvailableCopies(book.getAvailableCopies() + 1);
-        bookRepository.save(book);
-
-        return loanRepository.save(loan);
+        Loan loan = loanRepository.findById(loanId).orElseThrow(() -> new RuntimeException("Loan not found"));
+        bookRepository.returnCopy(loan.getBook().getId());
+        Long userId = loan.getUser().getId();
+        Long bookId = loan.getBook().getId();
+        Transactions.afterCommit(() -> {
+            activeLoansByUser.invalidate(userId);
+            bookService.evictBook(bookId);
+            dueDateScheduler.cancel(loanId);
+        });
+        return loanRepository.findById(loanId).orElseThrow(() -> new RuntimeException("Loan not found"));
     }
 
-    public List<Loan> getActiveLoans() {
-        return loanRepository.findByReturnDateIsNull();
+    /**
+     * One keyset page of loans. Status is one of active, returned, overdue or all; null user and
+     * book ids are ignored.
+     */
+    public CursorPage<LoanView> listLoans(String status, Long userId, Long bookId, String sort, String cursor, int limit) {
+        Sort order = KeysetPaging.sort(sort, SORT_FIELDS);
+        Specification<Loan> filter = filter(status, userId, bookId);
+        Window<LoanView> window = loanRepository.findBy(filter,
+                query -> query.as(LoanView.class).sortBy(order).limit(limit).scroll(KeysetPaging.position(cursor, order)));
+        return new CursorPage<>(window.getContent(), KeysetPaging.nextCursor(window));
     }
 
-    public Loan getLoanById(Long loanId) {
-        return loanRepository.findById(loanId).orElseThrow(() -> new RuntimeException("Loan not found"));
+    /**
+     * Every loan matching the filters as a JSON array, written as it is read. The status and sort
+     * are checked here, so bad ones fail before the response starts.
+     */
+    public StreamingResponseBody streamLoans(String status, Long userId, Long bookId, String sort) {
+        Sort order = KeysetPaging.sort(sort, SORT_FIELDS);
+        Specification<Loan> filter = filter(status, userId, bookId);
+        return out -> jsonStreamer.write(() -> loanRepository.findBy(filter, query -> query.as(LoanView.class).sortBy(order).stream()), out);
     }
 
-    public List<Loan> getLoansByUser(Long userId) {
-        return loanRepository.findAll().stream()
-            .filter(l -> l.getUser().getId().equals(userId))
-            .toList();
+    private static Specification<Loan> filter(String status, Long userId, Long bookId) {
+        String normalizedStatus = status == null ? "active" : status.toLowerCase();
+        if (!Set.of("active", "returned", "overdue", "all").contains(normalizedStatus)) {
+            throw new IllegalArgumentException("Status must be one of active, returned, overdue, all");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            switch (normalizedStatus) {
+                case "active" -> predicates.add(cb.isNull(root.get("returnDate")));
+                case "returned" -> predicates.add(cb.isNotNull(root.get("returnDate")));
+                case "overdue" -> {
+                    predicates.add(cb.isNull(root.get("returnDate")));
+                    predicates.add(cb.lessThan(root.get("dueDate"), now));
+                }
+                default -> {
+                }
+            }
+            if (userId != null) {
+                predicates.add(cb.equal(root.get("user").get("id"), userId));
+            }
+            if (bookId != null) {
+                predicates.add(cb.equal(root.get("book").get("id"), bookId));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
     }
 
-    @Scheduled(cron = "0 0 8 * * *") // Every day at 8 AM
-    public void scheduledOverdueNotification() {
-        checkAndNotifyOverdueLoans();
+    public Long getLoanUserId(Long loanId) {
+        return loanRepository.findUserIdById(loanId).orElseThrow(() -> new RuntimeException("Loan not found"));
     }
 
-    public void checkAndNotifyOverdueLoans() {
-        List<Loan> overdueLoans = loanRepository.findByDueDateBeforeAndReturnDateIsNull(LocalDateTime.now());
-        for (Loan loan : overdueLoans) {
-            User user = loan.getUser();
-            if (user != null && user.getEmail() != null && !user.getEmail().isEmpty()) {
-                String subject = "Library Book Overdue Notice";
-                String body = String.format("Dear %s,\n\nYour loan for the book '%s' (ID: %d) is overdue. Please return it as soon as possible.\n\nThank you!\nLibrary Management System",
-                    user.getFullName() != null ? user.getFullName() : user.getUsername(),
-                    loan.getBook().getTitle(),
-                    loan.getBook().getId()
-                );
-                emailService.sendEmail(user.getEmail(), subject, body);
+    /**
+     * One page of the user's loans. The first page of active loans in the default order is served
+     * from a per-user cache, so the "my loans" page does not hit the database on repeat visits.
+     */
+    public CursorPage<LoanView> getLoansByUser(Long userId, String status, String sort, String cursor, int limit) {
+        if ((status == null || status.equalsIgnoreCase("active")) && sort == null && cursor == null) {
+            List<LoanView> active = getActiveLoansByUser(userId);
+            if (active.size() <= limit) {
+                return new CursorPage<>(active, null);
             }
         }
+        return listLoans(status, userId, null, sort, cursor, limit);
+    }
+
+    public List<LoanView> getActiveLoansByUser(Long userId) {
+        return activeLoansByUser.get(userId,
+                id -> List.copyOf(loanRepository.findByUser_IdAndReturnDateIsNullOrderByIdAsc(id)));
     }
 }
@@ -0,0 +1,209 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.dto.NotificationReport;
+import com.example.Library_Management.model.Loan;
+import com.example.Library_Management.model.User;
+import com.example.Library_Management.repository.LoanRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queues one digest email per user listing all of their overdue books, on demand from the admin
+ * API; routine reminders are sent by {@link DueDateScheduler} as each loan falls due. Overdue
+ * loans are read in keyset pages ordered by user, with user and book fetched in the same query,
+ * and digests are written to the outbox a batch at a time, so memory stays bounded however many
+ * loans are overdue.
+ */
+@Slf4j
+@Service
+public class OverdueNotificationService {
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Value("${notifications.overdue.page-size:500}")
+    private int pageSize;
+
+    @Value("${notifications.overdue.batch-size:50}")
+    private int batchSize;
+
+    private ExecutorService runner;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Run lastRun;
+
+    @PostConstruct
+    public void init() {
+        runner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "overdue-notifications");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    /**
+     * Starts a run in the background and returns its report so far; returns null if a run is
+     * already in progress.
+     */
+    public NotificationReport start() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        Run run = new Run();
+        lastRun = run;
+        runner.execute(() -> execute(run));
+        return run.toReport();
+    }
+
+    /**
+     * Runs to completion on the calling thread; returns null if a run is already in progress.
+     */
+    public NotificationReport run() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        Run run = new Run();
+        lastRun = run;
+        execute(run);
+        return run.toReport();
+    }
+
+    public NotificationReport getLastReport() {
+        Run run = lastRun;
+        return run == null ? null : run.toReport();
+    }
+
+    private void execute(Run run) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<SimpleMailMessage> batch = new ArrayList<>(batchSize);
+            List<Loan> userLoans = new ArrayList<>();
+            long afterUserId = 0;
+            long afterLoanId = 0;
+            List<Loan> page;
+            do {
+                page = loanRepository.findOverduePage(now, afterUserId, afterLoanId, PageRequest.of(0, pageSize));
+                for (Loan loan : page) {
+                    run.overdueLoans.incrementAndGet();
+                    // A user's loans are contiguous; a group may continue on the next page
+                    if (!userLoans.isEmpty() && !userLoans.get(0).getUser().getId().equals(loan.getUser().getId())) {
+                        addDigest(userLoans, batch, run);
+                        userLoans = new ArrayList<>();
+                    }
+                    userLoans.add(loan);
+                }
+                if (!page.isEmpty()) {
+                    Loan last = page.get(page.size() - 1);
+                    afterUserId = last.getUser().getId();
+                    afterLoanId = last.getId();
+                }
+            } while (page.size() == pageSize);
+            if (!userLoans.isEmpty()) {
+                addDigest(userLoans, batch, run);
+            }
+            if (!batch.isEmpty()) {
+                queue(batch, run);
+            }
+            run.finish("COMPLETED", null);
+        } catch (Exception e) {
+            log.error("Overdue notification run failed", e);
+            run.finish("FAILED", e.getMessage());
+        } finally {
+            running.set(false);
+        }
+        NotificationReport report = run.toReport();
+        log.info("Overdue notifications {}: {} loans, {} digests queued, {} users without email, {}/s",
+                report.getStatus(), report.getOverdueLoans(), report.getDigestsQueued(),
+                report.getUsersWithoutEmail(), String.format("%.1f", report.getDigestsPerSecond()));
+    }
+
+    private void addDigest(List<Loan> userLoans, List<SimpleMailMessage> batch, Run run) {
+        User user = userLoans.get(0).getUser();
+        if (user.getEmail() == null || user.getEmail().isEmpty()) {
+            run.usersWithoutEmail.incrementAndGet();
+            return;
+        }
+        batch.add(digest(user, userLoans));
+        if (batch.size() == batchSize) {
+            queue(batch, run);
+            batch.clear();
+        }
+    }
+
+    private void queue(List<SimpleMailMessage> batch, Run run) {
+        emailService.sendAll(batch);
+        run.digestsQueued.addAndGet(batch.size());
+    }
+
+    static SimpleMailMessage digest(User user, List<Loan> loans) {
+        StringBuilder body = new StringBuilder();
+        body.append("Dear ").append(user.getFullName() != null ? user.getFullName() : user.getUsername()).append(",\n\n");
+        body.append(loans.size() == 1 ? "The following book is overdue:\n\n" : "The following books are overdue:\n\n");
+        for (Loan loan : loans) {
+            body.append(String.format("- '%s' (ID: %d), due %s%n",
+                    loan.getBook().getTitle(), loan.getBook().getId(), loan.getDueDate().toLocalDate()));
+        }
+        body.append("\nPlease return them as soon as possible.\n\nThank you!\nLibrary Management System");
+
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(user.getEmail());
+        message.setSubject("Library Book Overdue Notice");
+        message.setText(body.toString());
+        return message;
+    }
+
+    private static class Run {
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong overdueLoans = new AtomicLong();
+        private final AtomicLong digestsQueued = new AtomicLong();
+        private final AtomicLong usersWithoutEmail = new AtomicLong();
+        private volatile String status = "RUNNING";
+        private volatile LocalDateTime finishedAt;
+        private volatile long elapsedMillis = -1;
+        private volatile String error;
+
+        void finish(String status, String error) {
+            this.elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            this.finishedAt = LocalDateTime.now();
+            this.error = error;
+            this.status = status;
+        }
+
+        NotificationReport toReport() {
+            long elapsed = elapsedMillis >= 0 ? elapsedMillis : (System.nanoTime() - startNanos) / 1_000_000;
+            NotificationReport report = new NotificationReport();
+            report.setStatus(status);
+            report.setStartedAt(startedAt);
+            report.setFinishedAt(finishedAt);
+            report.setOverdueLoans(overdueLoans.get());
+            report.setDigestsQueued(digestsQueued.get());
+            report.setUsersWithoutEmail(usersWithoutEmail.get());
+            report.setElapsedMillis(elapsed);
+            report.setDigestsPerSecond(elapsed == 0 ? 0 : digestsQueued.get() * 1000.0 / elapsed);
+            report.setError(error);
+            return report;
+        }
+    }
+}
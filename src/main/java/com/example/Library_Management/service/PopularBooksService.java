@@ -0,0 +1,105 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.recommend.Leaderboard;
+import com.example.Library_Management.recommend.SlidingWindowLeaderboard;
+import com.example.Library_Management.repository.LoanRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Popular-book leaderboards kept up to date as ratings and loans are written: all-time by number
+ * of ratings (what the Python service used to compute), and the last 7 and 30 days by number of
+ * loans. Reading the list is a walk over the first few leaderboard entries.
+ */
+@Slf4j
+@Service
+public class PopularBooksService {
+
+    public enum Window {
+        ALL, DAYS_7, DAYS_30;
+
+        public static Window fromParam(String value) {
+            return switch (value == null ? "all" : value.toLowerCase()) {
+                case "all" -> ALL;
+                case "7d" -> DAYS_7;
+                case "30d" -> DAYS_30;
+                default -> throw new IllegalArgumentException("Window must be one of all, 7d, 30d");
+            };
+        }
+    }
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Value("${popular.books.limit:12}")
+    private int limit;
+
+    private final Leaderboard ratingCounts = new Leaderboard();
+    private final SlidingWindowLeaderboard loansLast7Days = new SlidingWindowLeaderboard(7);
+    private final SlidingWindowLeaderboard loansLast30Days = new SlidingWindowLeaderboard(30);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadLoanWindows() {
+        LocalDate today = LocalDate.now();
+        List<Object[]> loans = loanRepository.findBookIdAndLoanDateSince(
+                today.minusDays(loansLast30Days.getDays() - 1).atStartOfDay());
+        loansLast7Days.clear();
+        loansLast30Days.clear();
+        for (Object[] row : loans) {
+            recordLoan((Long) row[0], (LocalDateTime) row[1]);
+        }
+        log.info("Loaded {} recent loans into popularity windows", loans.size());
+    }
+
+    @Scheduled(cron = "0 0 0 * * *")
+    public void advanceWindows() {
+        LocalDate today = LocalDate.now();
+        loansLast7Days.advance(today);
+        loansLast30Days.advance(today);
+    }
+
+    public void recordRatingCountChange(Long bookId, long delta) {
+        ratingCounts.add(bookId, delta);
+    }
+
+    public void resetRatingCounts(Map<Long, Long> counts) {
+        synchronized (ratingCounts) {
+            ratingCounts.clear();
+            counts.forEach(ratingCounts::add);
+        }
+    }
+
+    public void recordLoan(Long bookId, LocalDateTime loanDate) {
+        if (loanDate == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        loansLast7Days.record(bookId, loanDate.toLocalDate(), today);
+        loansLast30Days.record(bookId, loanDate.toLocalDate(), today);
+    }
+
+    public void removeBook(Long bookId) {
+        ratingCounts.remove(bookId);
+        loansLast7Days.remove(bookId);
+        loansLast30Days.remove(bookId);
+    }
+
+    public List<Long> getPopularBookIds(Window window) {
+        LocalDate today = LocalDate.now();
+        return switch (window) {
+            case ALL -> ratingCounts.top(limit);
+            case DAYS_7 -> loansLast7Days.top(limit, today);
+            case DAYS_30 -> loansLast30Days.top(limit, today);
+        };
+    }
+}
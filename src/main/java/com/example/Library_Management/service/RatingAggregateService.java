@@ -0,0 +1,131 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.repository.RatingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-book rating count and sum, kept in memory and updated on every rating write so averages
+ * never require scanning the rating table. Count and sum share one AtomicLong (count in the high
+ * 32 bits, sum in the low 32 bits) so readers always see a matching pair without locking.
+ */
+@Slf4j
+@Service
+public class RatingAggregateService {
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private PopularBooksService popularBooksService;
+
+    private volatile Map<Long, AtomicLong> aggregates = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    /**
+     * Recomputes every aggregate from the rating table and swaps them in. Updates that commit
+     * while the rebuild query runs may be missed; run it again if writes were in flight.
+     */
+    public int rebuild() {
+        long start = System.nanoTime();
+        List<Object[]> rows = ratingRepository.aggregateByBook();
+        Map<Long, AtomicLong> rebuilt = new ConcurrentHashMap<>(Math.max(16, rows.size() * 2));
+        Map<Long, Long> counts = new HashMap<>(Math.max(16, rows.size() * 2));
+        for (Object[] row : rows) {
+            long count = ((Number) row[1]).longValue();
+            long sum = row[2] == null ? 0 : ((Number) row[2]).longValue();
+            rebuilt.put((Long) row[0], new AtomicLong(pack(count, sum)));
+            counts.put((Long) row[0], count);
+        }
+        aggregates = rebuilt;
+        popularBooksService.resetRatingCounts(counts);
+        log.info("Rebuilt rating aggregates for {} books in {} ms", rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+        return rebuilt.size();
+    }
+
+    public void recordRating(Long bookId, int rating) {
+        add(bookId, 1, rating);
+    }
+
+    public void replaceRating(Long bookId, int oldRating, int newRating) {
+        add(bookId, 0, newRating - oldRating);
+    }
+
+    /**
+     * Recomputes one book's aggregate from the rating table, for when a write could not tell what
+     * it replaced.
+     */
+    public void refreshBook(Long bookId) {
+        Object[] row = ratingRepository.aggregateForBook(bookId).get(0);
+        long count = row[0] == null ? 0 : ((Number) row[0]).longValue();
+        long sum = row[1] == null ? 0 : ((Number) row[1]).longValue();
+        AtomicLong previous = aggregates.put(bookId, new AtomicLong(pack(count, sum)));
+        long previousCount = previous == null ? 0 : previous.get() >>> 32;
+        if (count != previousCount) {
+            popularBooksService.recordRatingCountChange(bookId, count - previousCount);
+        }
+    }
+
+    public void removeBook(Long bookId) {
+        aggregates.remove(bookId);
+        popularBooksService.removeBook(bookId);
+    }
+
+    public long getRatingCount(Long bookId) {
+        AtomicLong value = aggregates.get(bookId);
+        return value == null ? 0 : value.get() >>> 32;
+    }
+
+    /**
+     * Average rating of the book, or null if it has no ratings.
+     */
+    public Double getAverage(Long bookId) {
+        AtomicLong value = aggregates.get(bookId);
+        return value == null ? null : average(value.get());
+    }
+
+    /**
+     * Averages of every rated book; books without ratings are omitted.
+     */
+    public Map<Long, Double> getAverages() {
+        Map<Long, AtomicLong> current = aggregates;
+        Map<Long, Double> averages = new HashMap<>(Math.max(16, current.size() * 2));
+        current.forEach((bookId, value) -> {
+            Double avg = average(value.get());
+            if (avg != null) {
+                averages.put(bookId, avg);
+            }
+        });
+        return averages;
+    }
+
+    private void add(Long bookId, long countDelta, long sumDelta) {
+        // Both halves stay non-negative, so a single add never borrows across them
+        aggregates.computeIfAbsent(bookId, id -> new AtomicLong()).addAndGet((countDelta << 32) + sumDelta);
+        if (countDelta != 0) {
+            popularBooksService.recordRatingCountChange(bookId, countDelta);
+        }
+    }
+
+    private static long pack(long count, long sum) {
+        return (count << 32) | sum;
+    }
+
+    private static Double average(long packed) {
+        long count = packed >>> 32;
+        return count == 0 ? null : (double) (packed & 0xFFFFFFFFL) / count;
+    }
+}
@@ -2,61 +2,79 @@ package com.example.Library_Management.service;
 
 import com.example.Library_Management.model.Book;
 import com.example.Library_Management.model.Rating;
-import com.example.Library_Management.repository.BookRepository;
 import com.example.Library_Management.repository.RatingRepository;
+import com.example.Library_Management.util.Transactions;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
+@Slf4j
 @Service
 public class RatingService {
 
     @Autowired
     private RatingRepository ratingRepository;
     @Autowired
-    private BookRepository bookRepository;
-
-    public Rating rateBook(Long bookId, Integer ratingValue) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found"));
-
-        // Find existing rating for the book
-        Optional<Rating> existing = ratingRepository.findAll().stream()
-                .filter(r -> r.getBook().getId().equals(bookId))
-                .findFirst();
-
-        Rating rating = existing.orElse(new Rating());
-        rating.setBook(book);
-        rating.setRating(ratingValue);
+    private BookService bookService;
+    @Autowired
+    private RatingAggregateService ratingAggregateService;
+    @Autowired
+    private RatingWriteBuffer ratingWriteBuffer;
 
-        return ratingRepository.save(rating);
+    /**
+     * Sets the user's rating of the book, replacing any earlier one, with a single upsert on the
+     * (user, book) unique index. In buffered mode the rating is queued instead and the returned
+     * rating has no id; it is written synchronously only when the buffer is full.
+     */
+    @Transactional
+    public Rating rateBook(Long userId, Long bookId, Integer ratingValue) {
+        Book book = bookService.getBookById(bookId);
+        if (ratingWriteBuffer.isEnabled() && ratingWriteBuffer.offer(userId, bookId, ratingValue)) {
+            return new Rating(null, book, null, ratingValue);
+        }
+        Object[] row = ratingRepository.upsert(userId, bookId, ratingValue).get(0);
+        Integer previous = row[2] == null ? null : ((Number) row[2]).intValue();
+        boolean inserted = (Boolean) row[3];
+        Transactions.afterCommit(() -> {
+            if (inserted) {
+                ratingAggregateService.recordRating(bookId, ratingValue);
+            } else if (previous != null) {
+                ratingAggregateService.replaceRating(bookId, previous, ratingValue);
+            } else {
+                // Lost a race with the user's first rating, whose value this statement could not see
+                log.debug("Refreshing rating aggregate of book {} after a concurrent first rating", bookId);
+                ratingAggregateService.refreshBook(bookId);
+            }
+        });
+        return new Rating(((Number) row[0]).longValue(), book, null, ratingValue);
     }
 
     public List<Rating> getRatingsForBook(Long bookId) {
-        return ratingRepository.findAll().stream()
-                .filter(r -> r.getBook().getId().equals(bookId))
-                .toList();
+        return ratingRepository.findByBook_Id(bookId);
     }
 
-    public Optional<Rating> getBookRating(Long bookId) {
-        return ratingRepository.findAll().stream()
-                .filter(r -> r.getBook().getId().equals(bookId))
-                .findFirst();
+    public Optional<Rating> getBookRating(Long userId, Long bookId) {
+        Optional<Rating> stored = ratingRepository.findByUser_IdAndBook_Id(userId, bookId);
+        // A rating still in the write-behind buffer is newer than the stored one
+        Integer pending = ratingWriteBuffer.isEnabled() ? ratingWriteBuffer.pending(userId, bookId) : null;
+        if (pending == null) {
+            return stored;
+        }
+        Rating rating = stored.orElseGet(() -> new Rating(null, bookService.getBookById(bookId), null, null));
+        rating.setRating(pending);
+        return Optional.of(rating);
     }
 
     public Double getAverageRatingForBook(Long bookId) {
-        List<Rating> ratings = getRatingsForBook(bookId);
-        return ratings.isEmpty() ? null : ratings.stream().mapToInt(Rating::getRating).average().orElse(0.0);
+        return ratingAggregateService.getAverage(bookId);
     }
 
+    // Unrated books are omitted; clients treat a missing entry as 0
     public java.util.Map<Long, Double> getAverageRatingsForAllBooks() {
-        java.util.Map<Long, Double> averages = new java.util.HashMap<>();
-        bookRepository.findAll().forEach(book -> {
-            Double avg = getAverageRatingForBook(book.getId());
-            averages.put(book.getId(), avg != null ? avg : 0.0);
-        });
-        return averages;
+        return ratingAggregateService.getAverages();
     }
 }
@@ -0,0 +1,266 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.repository.RatingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for ratings, used when {@code ratings.write-mode=buffered}. Ratings wait in a
+ * bounded map keyed by (user, book), so rating the same book again before a flush only replaces the
+ * pending value. A background thread flushes when batch-size ratings are waiting or every
+ * flush-interval, upserting each batch in one statement and then updating the rating aggregates.
+ * Pending ratings are flushed on shutdown; ratings accepted since the last flush are lost if the
+ * process dies, which is the trade against sync mode.
+ */
+@Slf4j
+@Service
+public class RatingWriteBuffer {
+
+    private record Key(long userId, long bookId) {
+    }
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private RatingAggregateService ratingAggregateService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${ratings.write-mode:sync}")
+    private String writeMode;
+
+    @Value("${ratings.buffer.capacity:10000}")
+    private int capacity;
+
+    @Value("${ratings.buffer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${ratings.buffer.flush-interval:1s}")
+    private Duration flushInterval;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition();
+    private Map<Key, Integer> pending = new LinkedHashMap<>();
+    private volatile boolean running;
+    private Thread flusher;
+    private Counter collapsedCounter;
+    private Counter flushedCounter;
+    private Counter rejectedCounter;
+    private Counter droppedCounter;
+    private Timer flushTimer;
+
+    @PostConstruct
+    public void init() {
+        collapsedCounter = Counter.builder("library.ratings.buffer.collapsed")
+                .description("Buffered ratings replaced by a newer rating of the same book by the same user")
+                .register(meterRegistry);
+        flushedCounter = Counter.builder("library.ratings.buffer.flushed")
+                .description("Ratings written by buffer flushes")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("library.ratings.buffer.rejected")
+                .description("Ratings written synchronously because the buffer was full")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("library.ratings.buffer.dropped")
+                .description("Buffered ratings skipped because their book or user was deleted before the flush")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("library.ratings.buffer.flush")
+                .description("One batch upsert of buffered ratings")
+                .register(meterRegistry);
+        meterRegistry.gauge("library.ratings.buffer.depth", this, RatingWriteBuffer::size);
+        if (isEnabled()) {
+            running = true;
+            flusher = new Thread(this::run, "rating-write-behind");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    /**
+     * Stops the flusher and writes whatever is still pending.
+     */
+    @PreDestroy
+    public void shutdown() {
+        lock.lock();
+        try {
+            running = false;
+        } finally {
+            lock.unlock();
+        }
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(flushInterval.toMillis() + 5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        int lost = size();
+        if (lost > 0) {
+            log.error("Dropping {} buffered ratings that could not be written before shutdown", lost);
+        }
+    }
+
+    public boolean isEnabled() {
+        return "buffered".equalsIgnoreCase(writeMode);
+    }
+
+    /**
+     * Queues the rating; returns false if the buffer is stopped or full, in which case the caller
+     * should write it itself. A rating replacing a pending one for the same user and book always fits.
+     */
+    public boolean offer(Long userId, Long bookId, int rating) {
+        Key key = new Key(userId, bookId);
+        lock.lock();
+        try {
+            if (!running) {
+                return false;
+            }
+            if (pending.replace(key, rating) != null) {
+                collapsedCounter.increment();
+                return true;
+            }
+            if (pending.size() >= capacity) {
+                rejectedCounter.increment();
+                return false;
+            }
+            pending.put(key, rating);
+            if (pending.size() >= batchSize) {
+                batchReady.signal();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The user's rating of the book that is waiting to be written, or null if there is none.
+     */
+    public Integer pending(Long userId, Long bookId) {
+        lock.lock();
+        try {
+            return pending.get(new Key(userId, bookId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes every pending rating now, in batches; returns how many were written. Ratings of books or
+     * by users deleted meanwhile are dropped. Ratings from a failed batch go back into the buffer
+     * unless a newer rating for them arrived meanwhile.
+     */
+    public int flush() {
+        Map<Key, Integer> batch;
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        } finally {
+            lock.unlock();
+        }
+        List<Map.Entry<Key, Integer>> entries = new ArrayList<>(batch.entrySet());
+        int written = 0;
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<Map.Entry<Key, Integer>> chunk = entries.subList(from, Math.min(entries.size(), from + batchSize));
+            try {
+                written += write(chunk);
+            } catch (RuntimeException e) {
+                log.error("Failed to write {} buffered ratings; keeping them for the next flush", entries.size() - from, e);
+                requeue(entries.subList(from, entries.size()));
+                break;
+            }
+        }
+        return written;
+    }
+
+    private int write(List<Map.Entry<Key, Integer>> chunk) {
+        long[] userIds = new long[chunk.size()];
+        long[] bookIds = new long[chunk.size()];
+        int[] ratings = new int[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            Map.Entry<Key, Integer> entry = chunk.get(i);
+            userIds[i] = entry.getKey().userId();
+            bookIds[i] = entry.getKey().bookId();
+            ratings[i] = entry.getValue();
+        }
+        List<Object[]> rows = flushTimer.record(() -> ratingRepository.upsertAll(userIds, bookIds, ratings));
+        for (Object[] row : rows) {
+            Long bookId = (Long) row[0];
+            int rating = (Integer) row[1];
+            Integer previous = (Integer) row[2];
+            if ((Boolean) row[3]) {
+                ratingAggregateService.recordRating(bookId, rating);
+            } else if (previous != null) {
+                ratingAggregateService.replaceRating(bookId, previous, rating);
+            } else {
+                ratingAggregateService.refreshBook(bookId);
+            }
+        }
+        flushedCounter.increment(rows.size());
+        droppedCounter.increment(chunk.size() - rows.size());
+        return rows.size();
+    }
+
+    private void requeue(List<Map.Entry<Key, Integer>> entries) {
+        lock.lock();
+        try {
+            for (Map.Entry<Key, Integer> entry : entries) {
+                pending.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            lock.lock();
+            try {
+                if (pending.size() < batchSize) {
+                    batchReady.await(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("Rating flush failed", e);
+            }
+        }
+    }
+}
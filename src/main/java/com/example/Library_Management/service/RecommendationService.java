@@ -1,31 +1,118 @@
 package com.example.Library_Management.service;
 
+import com.example.Library_Management.client.RecommendationClient;
+import com.example.Library_Management.dto.BookCard;
 import com.example.Library_Management.model.Book;
 import com.example.Library_Management.repository.BookRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Recommendation lists as complete book cards. Each list is resolved with one query for all of its
+ * books, and the average ratings come from the in-memory aggregates.
+ */
 @Service
 public class RecommendationService {
 
     @Autowired
-    private RestTemplate restTemplate;
+    private RecommendationClient recommendationClient;
+
+    @Autowired
+    private BookService bookService;
 
     @Autowired
     private BookRepository bookRepository;
 
-    private final String PYTHON_API_URL = "http://localhost:8000";
+    @Autowired
+    private RatingAggregateService ratingAggregateService;
+
+    @Autowired
+    private ContentRecommendationService contentRecommendationService;
+
+    @Autowired
+    private AlsoBorrowedService alsoBorrowedService;
+
+    private static final int CONTENT_BASED_LIMIT = 8;
+
+    @Autowired
+    private PopularBooksService popularBooksService;
+
+    public List<BookCard> getPopularBooks(String window) {
+        return cardsById(popularBooksService.getPopularBookIds(PopularBooksService.Window.fromParam(window)));
+    }
+
+    public List<BookCard> getContentBasedRecommendations(String isbn) {
+        Book book = bookService.getBookByIsbn(isbn);
+        if (!contentRecommendationService.isReady()) {
+            // Index still building after startup: the Python service can answer meanwhile
+            return cardsByTitle(recommendationClient.getContentBased(book.getIsbn()));
+        }
+        List<Long> ids = contentRecommendationService.recommendIds(book.getId(), CONTENT_BASED_LIMIT);
+        if (ids.isEmpty()) {
+            return getPopularBooks("all").stream().limit(5).collect(Collectors.toList());
+        }
+        return cardsById(ids);
+    }
+
+    /**
+     * Books most often borrowed by readers who also borrowed the given one.
+     */
+    public List<BookCard> getAlsoBorrowed(Long bookId, int limit) {
+        bookService.getBookById(bookId);
+        return cardsById(alsoBorrowedService.recommendIds(bookId, limit));
+    }
+
+    /**
+     * Cards for the given books in the given order, leaving out any that no longer exist.
+     */
+    private List<BookCard> cardsById(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BookCard> cards = bookRepository.findCardsByIdIn(ids).stream()
+                .collect(Collectors.toMap(BookCard::getId, Function.identity()));
+        List<BookCard> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            BookCard card = cards.get(id);
+            if (card != null) {
+                ordered.add(withRating(card));
+            }
+        }
+        return ordered;
+    }
 
-    public List<String> getPopularBooks() {
-        return restTemplate.getForObject(PYTHON_API_URL + "/popular", List.class);
+    /**
+     * Cards for the titles the Python service answers with, one per title (the lowest id when
+     * several books share it), in the given order.
+     */
+    private List<BookCard> cardsByTitle(List<String> titles) {
+        if (titles.isEmpty()) {
+            return List.of();
+        }
+        Map<String, BookCard> cards = new HashMap<>();
+        for (BookCard card : bookRepository.findCardsByTitleIn(new LinkedHashSet<>(titles))) {
+            cards.putIfAbsent(card.getTitle(), card);
+        }
+        List<BookCard> ordered = new ArrayList<>(titles.size());
+        for (String title : new LinkedHashSet<>(titles)) {
+            BookCard card = cards.get(title);
+            if (card != null) {
+                ordered.add(withRating(card));
+            }
+        }
+        return ordered;
     }
 
-    public List<String> getContentBasedRecommendations(String isbn) {
-        Book book = bookRepository.findByIsbn(isbn).orElseThrow(() -> new RuntimeException("Book not found"));
-        return restTemplate.getForObject(PYTHON_API_URL + "/content-based/" + book.getIsbn(), List.class);
+    private BookCard withRating(BookCard card) {
+        card.setAvgRating(ratingAggregateService.getAverage(card.getId()));
+        return card;
     }
 }
@@ -1,19 +1,44 @@
 package com.example.Library_Management.service;
 
+import com.example.Library_Management.dto.CursorPage;
+import com.example.Library_Management.exception.ServiceBusyException;
 import com.example.Library_Management.model.User;
 import com.example.Library_Management.repository.UserRepository;
 import com.example.Library_Management.dto.RegisterRequest;
 import com.example.Library_Management.dto.LoginRequest;
+import com.example.Library_Management.dto.UserView;
+import com.example.Library_Management.util.JsonStreamer;
 import com.example.Library_Management.util.JwtUtil;
+import com.example.Library_Management.util.KeysetPaging;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
+import java.time.Duration;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
 
 @Service
 public class UserService {
 
+    private static final Set<String> SORT_FIELDS = Set.of("id", "username");
+
     @Autowired
     private UserRepository userRepository;
 
@@ -23,19 +48,104 @@ public class UserService {
     @Autowired
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Autowired
+    private JsonStreamer jsonStreamer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${login.hash-threads:0}")
+    private int hashThreads;
+
+    @Value("${login.max-queued:64}")
+    private int maxQueued;
+
+    @Value("${login.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    @Value("${cache.users.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${cache.users.expire-after-write:10m}")
+    private Duration cacheExpireAfterWrite;
+
+    // BCrypt is deliberately slow, so it runs on its own small pool rather than on request threads
+    private ThreadPoolExecutor hashExecutor;
+    private Timer lookupTimer;
+    private Timer hashTimer;
+    private Counter rejectedCounter;
+
+    // Ids for tokens issued before they carried one and for lookups by username
+    private Cache<String, Long> userIdsByUsername;
+    // Callers get copies, so editing a fetched user cannot leak into the cache before it is saved
+    private Cache<Long, User> usersById;
+
+    @PostConstruct
+    public void init() {
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        hashExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(maxQueued),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        lookupTimer = Timer.builder("library.login.lookup")
+                .description("User lookup during login")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        hashTimer = Timer.builder("library.login.hash")
+                .description("Password hash check during login, excluding queueing")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("library.login.rejected")
+                .description("Logins rejected because the hashing pool was full or too slow")
+                .register(meterRegistry);
+        meterRegistry.gauge("library.login.queue.depth", hashExecutor, executor -> executor.getQueue().size());
+        usersById = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheExpireAfterWrite)
+                .recordStats()
+                .build();
+        userIdsByUsername = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheExpireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users");
+        CaffeineCacheMetrics.monitor(meterRegistry, userIdsByUsername, "userIdsByUsername");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashExecutor.shutdownNow();
+    }
+
     public User getUserById(Long id) {
-        return userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
+        User user = usersById.get(id, key -> userRepository.findById(key).orElse(null));
+        if (user == null) {
+            throw new RuntimeException("User not found");
+        }
+        return copy(user);
+    }
+
+    private static User copy(User user) {
+        User copy = new User();
+        BeanUtils.copyProperties(user, copy);
+        return copy;
     }
 
     public User register(RegisterRequest request) {
-        if (userRepository.findByUsername(request.getUsername()).isPresent()) {
+        String username = normalizeUsername(request.getUsername());
+        if (userRepository.findByUsername(username).isPresent()) {
             throw new RuntimeException("Username already exists");
         }
         if (userRepository.findByEmail(request.getEmail()).isPresent()) {
             throw new RuntimeException("Email already exists");
         }
         User user = new User();
-        user.setUsername(request.getUsername());
+        user.setUsername(username);
         user.setPassword(passwordEncoder.encode(request.getPassword()));
         user.setEmail(request.getEmail());
         user.setFullName(request.getFullName());
@@ -43,18 +153,39 @@ public class UserService {
         return userRepository.save(user);
     }
 
-    public String login(LoginRequest request) {
-        Optional<User> userOpt = userRepository.findAll().stream()
-            .filter(u -> u.getUsername().equals(request.getUsername()))
-            .findFirst();
+    /**
+     * Looks the user up by username and checks the password on the hashing pool, completing with
+     * a token. Completes with {@link ServiceBusyException} when the pool's queue is full or the
+     * check does not finish within the login timeout, and with a RuntimeException for bad credentials.
+     */
+    public CompletableFuture<String> login(LoginRequest request) {
+        Optional<User> userOpt = lookupTimer.record(() -> userRepository.findByUsername(normalizeUsername(request.getUsername())));
         if (userOpt.isEmpty()) {
-            throw new RuntimeException("Invalid username or password");
+            return CompletableFuture.failedFuture(new RuntimeException("Invalid username or password"));
         }
         User user = userOpt.get();
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            throw new RuntimeException("Invalid username or password");
+        CompletableFuture<String> token;
+        try {
+            token = CompletableFuture.supplyAsync(() -> {
+                boolean matches = hashTimer.record(() -> passwordEncoder.matches(request.getPassword(), user.getPassword()));
+                if (!matches) {
+                    throw new RuntimeException("Invalid username or password");
+                }
+                return jwtUtil.generateToken(user.getId(), user.getUsername(), user.getRole());
+            }, hashExecutor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(new ServiceBusyException("Too many logins in progress", e));
         }
-        return jwtUtil.generateToken(user.getUsername(), user.getRole());
+        return token.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .exceptionallyCompose(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        rejectedCounter.increment();
+                        cause = new ServiceBusyException("Login timed out waiting for the hashing pool", cause);
+                    }
+                    return CompletableFuture.failedFuture(cause);
+                });
     }
 
     public User updateUser(Long id, User updatedUser) {
@@ -64,19 +195,60 @@ public class UserService {
         if (updatedUser.getPassword() != null && !updatedUser.getPassword().isEmpty()) {
             user.setPassword(passwordEncoder.encode(updatedUser.getPassword()));
         }
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        usersById.invalidate(id);
+        return saved;
     }
 
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
+        usersById.invalidate(id);
+        userIdsByUsername.asMap().values().removeIf(id::equals);
+    }
+
+    /**
+     * Id of the user with this username, or null if there is none; cached briefly.
+     */
+    public Long findUserIdByUsername(String username) {
+        return userIdsByUsername.get(username,
+                name -> userRepository.findByUsername(name).map(User::getId).orElse(null));
     }
 
-    public List<User> listUsers() {
-        return userRepository.findAll();
+    /**
+     * One keyset page of users, optionally only those with the given role.
+     */
+    public CursorPage<UserView> listUsers(String role, String sort, String cursor, int limit) {
+        Sort order = KeysetPaging.sort(sort, SORT_FIELDS);
+        Window<UserView> window = userRepository.findBy(filter(role),
+                query -> query.as(UserView.class).sortBy(order).limit(limit).scroll(KeysetPaging.position(cursor, order)));
+        return new CursorPage<>(window.getContent(), KeysetPaging.nextCursor(window));
+    }
+
+    /**
+     * Every user with the given role (or all users) as a JSON array, written as it is read. The sort
+     * is checked here, so a bad one fails before the response starts.
+     */
+    public StreamingResponseBody streamUsers(String role, String sort) {
+        Sort order = KeysetPaging.sort(sort, SORT_FIELDS);
+        return out -> jsonStreamer.write(() -> userRepository.findBy(filter(role), query -> query.as(UserView.class).sortBy(order).stream()), out);
+    }
+
+    private static Specification<User> filter(String role) {
+        return (root, query, cb) -> role == null ? cb.conjunction() : cb.equal(root.get("role"), role);
+    }
+
+    /**
+     * Usernames are stored trimmed and lower-cased so login can use a plain index lookup.
+     */
+    public static String normalizeUsername(String username) {
+        return username == null ? null : username.trim().toLowerCase(Locale.ROOT);
     }
 
     public User getUserByUsername(String username) {
-        return userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        Long id = findUserIdByUsername(username);
+        if (id == null) {
+            throw new RuntimeException("User not found");
+        }
+        return getUserById(id);
     }
 }
\ No newline at end of file
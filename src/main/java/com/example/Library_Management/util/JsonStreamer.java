@@ -0,0 +1,70 @@
+package com.example.Library_Management.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes the result of a JPA stream query to the response as one JSON array, element by element.
+ * The query runs in a read-only transaction so the driver can use a server-side cursor, and the
+ * persistence context is cleared as rows are written, so memory stays flat however many rows match.
+ */
+@Component
+public class JsonStreamer {
+
+    private static final int FLUSH_EVERY = 1000;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public <T> long write(Supplier<Stream<T>> query, OutputStream out) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        Long written = transactionTemplate.execute(status -> {
+            try (Stream<T> rows = query.get()) {
+                return write(rows, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return written == null ? 0 : written;
+    }
+
+    private <T> long write(Stream<T> rows, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                if (++count % FLUSH_EVERY == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+            generator.writeEndArray();
+        }
+        return count;
+    }
+}
@@ -1,48 +1,108 @@
 package com.example.Library_Management.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
     private final String SECRET_KEY = "library_secret_key";
     private final long EXPIRATION_TIME = 1000 * 60 * 60 * 10; // 10 hours
+    private static final int VERIFIED_CACHE_SIZE = 10_000;
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    /**
+     * What the application needs from a verified token.
+     */
+    public record TokenClaims(Long userId, String username, String role, Date expiration) {
     }
 
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
+    // Tokens that already passed signature and expiry checks, keyed by SHA-256 of the token and
+    // evicted when the token expires
+    private final Cache<String, TokenClaims> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(VERIFIED_CACHE_SIZE)
+            .expireAfter(new Expiry<String, TokenClaims>() {
+                @Override
+                public long expireAfterCreate(String key, TokenClaims claims, long currentTime) {
+                    long millis = claims.expiration() == null ? 0 : claims.expiration().getTime() - System.currentTimeMillis();
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, TokenClaims claims, long currentTime, long currentDuration) {
+                    return expireAfterCreate(key, claims, currentTime);
+                }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+                @Override
+                public long expireAfterRead(String key, TokenClaims claims, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+    /**
+     * Verifies the token once and returns its claims, or null if it is malformed, badly signed
+     * or expired. Tokens seen before are answered from the cache without re-verifying.
+     */
+    public TokenClaims verify(String token) {
+        String key = hash(token);
+        TokenClaims cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && cached.expiration().after(new Date())) {
+            return cached;
+        }
+        TokenClaims claims = parse(token);
+        if (claims != null) {
+            verifiedTokens.put(key, claims);
+        }
+        return claims;
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser().setSigningKey(SECRET_KEY).parseClaimsJws(token).getBody();
+    /**
+     * Verifies and decodes the token in a single pass, without the cache.
+     */
+    public TokenClaims parse(String token) {
+        try {
+            Claims claims = extractAllClaims(token);
+            if (claims.getSubject() == null || claims.getExpiration() == null || claims.getExpiration().before(new Date())) {
+                return null;
+            }
+            Object userId = claims.get("uid"); // Absent from tokens issued before it was added
+            return new TokenClaims(userId instanceof Number number ? number.longValue() : null,
+                    claims.getSubject(), (String) claims.get("role"), claims.getExpiration());
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
-    public String generateToken(String username) {
-        Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, username);
+    private Claims extractAllClaims(String token) {
+        return Jwts.parser().setSigningKey(SECRET_KEY).parseClaimsJws(token).getBody();
     }
 
-    public String generateToken(String username, String role) {
+    public String generateToken(Long userId, String username, String role) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put("uid", userId);
         claims.put("role", role);
         return createToken(claims, username);
     }
@@ -56,14 +116,4 @@ public class JwtUtil {
                 .signWith(SignatureAlgorithm.HS256, SECRET_KEY)
                 .compact();
     }
-
-    public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
-    }
-
-    public String extractRole(String token) {
-        final Claims claims = extractAllClaims(token);
-        return (String) claims.get("role");
-    }
 } 
\ No newline at end of file
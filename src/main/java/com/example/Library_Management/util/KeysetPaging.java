@@ -0,0 +1,120 @@
+package com.example.Library_Management.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Helpers for keyset ("seek") pagination. A page is the first {@code limit} rows that sort after
+ * the last row of the previous page, so the database starts from an index position instead of
+ * counting past an offset. The cursor handed to clients is that row's sort key, base64 encoded.
+ */
+public final class KeysetPaging {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private KeysetPaging() {
+    }
+
+    /**
+     * Sort on the requested field ({@code "title"}, or {@code "-title"} for descending), with the
+     * id as tie-breaker so every row has a unique position.
+     */
+    public static Sort sort(String param, Set<String> fields) {
+        if (param == null || param.isBlank()) {
+            return Sort.by("id");
+        }
+        boolean descending = param.startsWith("-");
+        String field = descending ? param.substring(1) : param;
+        if (!fields.contains(field)) {
+            throw new IllegalArgumentException("Sort must be one of " + fields + ", optionally prefixed with -");
+        }
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, field);
+        return field.equals("id") ? sort : sort.and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * Scroll position for the cursor; the first page when the cursor is null. The cursor must have
+     * been issued for the same sort.
+     */
+    public static KeysetScrollPosition position(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor);
+            List<List<String>> entries = MAPPER.readValue(json, new TypeReference<>() {
+            });
+            for (List<String> entry : entries) {
+                keys.put(entry.get(0), decode(entry.get(1), entry.get(2)));
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        Set<String> expected = new HashSet<>();
+        sort.forEach(order -> expected.add(order.getProperty()));
+        if (!keys.keySet().equals(expected)) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    /**
+     * Cursor for the page after this one, or null if this is the last page.
+     */
+    public static String nextCursor(Window<?> window) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return null;
+        }
+        KeysetScrollPosition position = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        List<List<String>> entries = new ArrayList<>();
+        position.getKeys().forEach((field, value) -> entries.add(encode(field, value)));
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(entries));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+    }
+
+    private static List<String> encode(String field, Object value) {
+        String type;
+        if (value == null) {
+            type = "null";
+        } else if (value instanceof Long) {
+            type = "long";
+        } else if (value instanceof Integer) {
+            type = "int";
+        } else if (value instanceof String) {
+            type = "string";
+        } else if (value instanceof LocalDateTime) {
+            type = "datetime";
+        } else if (value instanceof LocalDate) {
+            type = "date";
+        } else {
+            throw new IllegalStateException("Unsupported sort key type " + value.getClass());
+        }
+        return Arrays.asList(field, type, value == null ? null : value.toString());
+    }
+
+    private static Object decode(String type, String value) {
+        return switch (type) {
+            case "null" -> null;
+            case "long" -> Long.valueOf(value);
+            case "int" -> Integer.valueOf(value);
+            case "string" -> value;
+            case "datetime" -> LocalDateTime.parse(value);
+            case "date" -> LocalDate.parse(value);
+            default -> throw new IllegalArgumentException("Unknown key type " + type);
+        };
+    }
+}
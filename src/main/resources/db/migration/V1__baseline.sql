@@ -0,0 +1,46 @@
+-- The schema spring.jpa.hibernate.ddl-auto built before migrations took over. Databases that already
+-- have it are baselined at this version instead of running it. Later versions may find their change
+-- already made by ddl-auto on databases that were updated in between, so they only add what is missing.
+
+create table book (
+    available_copies integer,
+    total_copies integer,
+    year integer,
+    id bigint generated by default as identity,
+    author text,
+    isbn text,
+    publisher text,
+    title text,
+    primary key (id)
+);
+
+create table users (
+    id bigint generated by default as identity,
+    email varchar(255),
+    full_name varchar(255),
+    password varchar(255),
+    role varchar(255),
+    username varchar(255),
+    primary key (id)
+);
+
+create table loan (
+    book_id bigint,
+    due_date timestamp(6),
+    id bigint generated by default as identity,
+    loan_date timestamp(6),
+    return_date timestamp(6),
+    user_id bigint,
+    primary key (id)
+);
+
+create table rating (
+    rating integer,
+    book_id bigint,
+    id bigint generated by default as identity,
+    primary key (id)
+);
+
+alter table loan add constraint FK88c0ydlo57pcgp137tntrgqx1 foreign key (book_id) references book;
+alter table loan add constraint FKkv6kl0xa6lu02a89nlowpapnv foreign key (user_id) references users;
+alter table rating add constraint FK7y1acs6la7vkgb5ulm44729sc foreign key (book_id) references book;
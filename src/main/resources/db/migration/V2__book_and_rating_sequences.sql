@@ -0,0 +1,13 @@
+-- Book and rating ids come from sequences Hibernate draws 100 ids at a time, so batched inserts need
+-- no round trip per row. Tables that were created with identity ids keep their rows and drop the
+-- identity. Each draw hands out the hundred ids up to the value drawn, so setting a sequence to
+-- max(id) makes the next draw start past every existing row.
+
+create sequence if not exists book_seq start with 1 increment by 100;
+create sequence if not exists rating_seq start with 1 increment by 100;
+
+alter table book alter column id drop identity if exists;
+alter table rating alter column id drop identity if exists;
+
+select setval('book_seq', max(id)) from book having max(id) is not null;
+select setval('rating_seq', max(id)) from rating having max(id) is not null;
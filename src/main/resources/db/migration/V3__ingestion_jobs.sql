@@ -0,0 +1,19 @@
+-- Background ingestion jobs and their resume checkpoints
+
+create table if not exists ingestion_job (
+    books_inserted bigint not null,
+    byte_offset bigint not null,
+    created_at timestamp(6),
+    elapsed_millis bigint not null,
+    file_size bigint not null,
+    finished_at timestamp(6),
+    id bigint generated by default as identity,
+    lines_read bigint not null,
+    ratings_inserted bigint not null,
+    rejected bigint not null,
+    started_at timestamp(6),
+    error text,
+    file_path text,
+    status varchar(255) check (status in ('QUEUED', 'RUNNING', 'COMPLETED', 'FAILED', 'CANCELLED')),
+    primary key (id)
+);
@@ -0,0 +1,4 @@
+-- A user's loans in id order, and the login lookup by username
+
+create index if not exists idx_loan_user_id on loan (user_id, id);
+create index if not exists idx_users_username on users (username);
@@ -0,0 +1,22 @@
+-- Mail is stored here first and delivered by the background dispatcher. Ids are drawn 100 at a time;
+-- if ddl-auto already created the table, the sequence is moved past its rows as in V2.
+
+create sequence if not exists outbox_email_seq start with 1 increment by 100;
+
+create table if not exists outbox_email (
+    attempts integer not null,
+    created_at timestamp(6),
+    id bigint not null,
+    next_attempt_at timestamp(6),
+    sent_at timestamp(6),
+    body text,
+    last_error text,
+    recipient varchar(255),
+    status varchar(255) check (status in ('PENDING', 'SENT', 'DEAD')),
+    subject text,
+    primary key (id)
+);
+
+create index if not exists idx_outbox_email_due on outbox_email (status, next_attempt_at);
+
+select setval('outbox_email_seq', max(id)) from outbox_email having max(id) is not null;
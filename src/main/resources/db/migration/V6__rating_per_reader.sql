@@ -0,0 +1,16 @@
+-- Ratings belong to a reader, with one rating per reader and book. Ratings made before this, and
+-- ingested ratings, have no reader.
+
+alter table rating add column if not exists user_id bigint;
+
+do $$
+begin
+    if not exists (select 1 from pg_constraint where conname = 'fkf68lgbsbxl310n0jifwpfqgfh') then
+        alter table rating add constraint FKf68lgbsbxl310n0jifwpfqgfh foreign key (user_id) references users;
+    end if;
+    if not exists (select 1 from pg_constraint where conname = 'uk_rating_user_book') then
+        alter table rating add constraint uk_rating_user_book unique (user_id, book_id);
+    end if;
+end $$;
+
+create index if not exists idx_rating_book on rating (book_id);
@@ -0,0 +1,48 @@
+-- One index per hot lookup, named after the repository method it serves. Unique indexes cannot be
+-- built over duplicates, so stop with a clear message if there are any rather than a bare
+-- constraint error halfway through.
+
+do $$
+begin
+    if exists (select 1 from book where isbn is not null group by isbn having count(*) > 1) then
+        raise exception 'book.isbn has duplicates; merge those books before migrating';
+    end if;
+    if exists (select 1 from users where username is not null group by username having count(*) > 1) then
+        raise exception 'users.username has duplicates; resolve them before migrating';
+    end if;
+    if exists (select 1 from users where email is not null group by email having count(*) > 1) then
+        raise exception 'users.email has duplicates; resolve them before migrating';
+    end if;
+end $$;
+
+-- BookRepository.findByIsbn: ingestion, recommendations and the ISBN cache
+create unique index uk_book_isbn on book (isbn);
+
+-- BookRepository.findByTitleContainingIgnoreCase, used while the in-memory search index is
+-- building: upper(title) like upper('%...%') can only use a trigram index
+create extension if not exists pg_trgm;
+create index idx_book_title_trgm on book using gin (upper(title) gin_trgm_ops);
+
+-- Book listing: keyset pages sorted by title, and the case-insensitive author/publisher filters
+create index idx_book_title on book (title, id);
+create index idx_book_author on book (lower(author));
+create index idx_book_publisher on book (lower(publisher));
+
+-- UserRepository.findByUsername (login, registration) and findByEmail (registration)
+drop index if exists idx_users_username;
+create unique index uk_users_username on users (username);
+create unique index uk_users_email on users (email);
+
+-- LoanRepository: open loans by due date (overdue pages, the due-date scheduler), loans of a book,
+-- and recent loans for the popular-books window. Loans of a user use idx_loan_user_id
+create index idx_loan_open_due on loan (due_date) where return_date is null;
+create index idx_loan_book_id on loan (book_id, id);
+create index idx_loan_loan_date on loan (loan_date);
+
+-- RatingRepository.aggregateForBook reads only the index; findByBook_Id uses it too.
+-- findByUser_IdAndBook_Id and the upsert use uk_rating_user_book
+drop index if exists idx_rating_book;
+create index idx_rating_book on rating (book_id) include (rating);
+
+-- OutboxEmailRepository.deleteSentBefore; lockDue uses idx_outbox_email_due
+create index idx_outbox_email_sent on outbox_email (sent_at) where status = 'SENT';
@@ -0,0 +1,11 @@
+-- Login trims and lower-cases the username it is given and looks it up exactly, so stored names
+-- must be in that form too. Where accounts differ only in case or spacing, the oldest keeps the
+-- name and the others get their id appended (Alice -> alice-17) and log in with that.
+
+update users u set username = lower(btrim(u.username)) || '-' || u.id
+where exists (select 1 from users o
+              where lower(btrim(o.username)) = lower(btrim(u.username)) and o.id < u.id);
+
+update users set username = lower(btrim(username)) where username <> lower(btrim(username));
+
+create unique index uk_users_username_lower on users (lower(username));
@@ -0,0 +1,40 @@
+package com.example.Library_Management.client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTests {
+
+    @Test
+    void opensAfterThresholdAndClosesAfterSuccessfulTrial() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(2, 50);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        Thread.sleep(60);
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire()); // Only one trial while half-open
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void failedTrialReopens() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, 20);
+        breaker.tryAcquire();
+        breaker.onFailure();
+
+        Thread.sleep(30);
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+}
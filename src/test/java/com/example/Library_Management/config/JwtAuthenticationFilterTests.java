@@ -0,0 +1,84 @@
+package com.example.Library_Management.config;
+
+import com.example.Library_Management.service.UserService;
+import com.example.Library_Management.util.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTests {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private UserService userService;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        userService = mock(UserService.class);
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "userService", userService);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void buildsTypedPrincipalFromTokenWithoutLookup() throws Exception {
+        Authentication authentication = authenticate(jwtUtil.generateToken(42L, "alice", "ROLE_EMPLOYEE"));
+
+        AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+        assertEquals(42L, principal.getId());
+        assertEquals("alice", authentication.getName());
+        assertEquals("ROLE_EMPLOYEE", authentication.getAuthorities().iterator().next().getAuthority());
+        // The property @PreAuthorize("#id == principal.id") reads
+        assertEquals(42L, new SpelExpressionParser().parseExpression("principal.id").getValue(authentication));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void resolvesIdForOlderTokensAndRejectsUnknownUsers() throws Exception {
+        when(userService.findUserIdByUsername("alice")).thenReturn(7L);
+        when(userService.findUserIdByUsername("ghost")).thenReturn(null);
+        Authentication authentication = authenticate(legacyToken("alice", "ROLE_ADMIN"));
+        assertEquals(7L, ((AuthenticatedUser) authentication.getPrincipal()).getId());
+
+        SecurityContextHolder.clearContext();
+        assertNull(authenticate(legacyToken("ghost", "ROLE_ADMIN")));
+    }
+
+    /**
+     * A token as issued before tokens carried the user id.
+     */
+    private String legacyToken(String username, String role) {
+        return Jwts.builder()
+                .claim("role", role)
+                .setSubject(username)
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(SignatureAlgorithm.HS256, (String) ReflectionTestUtils.getField(jwtUtil, "SECRET_KEY"))
+                .compact();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.Library_Management.ingest;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the legacy {@code split(";")} + regex parsing loop with {@link BookCrossingReader}.
+ * <p>
+ * Run with:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.Library_Management.ingest.BookCrossingReaderBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookCrossingReaderBenchmark {
+
+    @Param({"200000"})
+    public int lines;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void createFile() throws IOException {
+        file = Files.createTempFile("book-crossing", ".csv");
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1)) {
+            writer.write("ISBN;Book-Rating;Book-Title;Book-Author;Year-Of-Publication;Publisher\n");
+            for (int i = 0; i < lines; i++) {
+                writer.write("\"0" + (195153448 + i % 50000) + "\";\"" + (i % 11) + "\";"
+                        + "The Café at the End of Volume " + i + ";Renée Author " + (i % 997) + ";\""
+                        + (1950 + i % 70) + "\";Oxford University Press\n");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void splitAndRegex(Blackhole bh) throws IOException {
+        try (BufferedReader br = new BufferedReader(new FileReader(file.toFile()))) {
+            String line;
+            br.readLine();
+            while ((line = br.readLine()) != null) {
+                String[] data = line.split(";", -1);
+                if (data.length >= 6) {
+                    bh.consume(clean(data[0]));
+                    bh.consume(Integer.parseInt(clean(data[1])));
+                    bh.consume(data[2].isBlank() ? "Unknown" : data[2].trim());
+                    bh.consume(data[3].isBlank() ? "Other" : data[3].trim());
+                    String yearStr = clean(data[4]);
+                    bh.consume(yearStr.matches("\\d+") ? Integer.parseInt(yearStr) : 0);
+                    bh.consume(data[5].isBlank() ? "Other" : data[5].trim());
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void mappedReader(Blackhole bh) throws IOException {
+        try (BookCrossingReader reader = new BookCrossingReader(file)) {
+            reader.next();
+            while (reader.next()) {
+                if (reader.fieldCount() >= 6) {
+                    bh.consume(reader.cleaned(0));
+                    bh.consume(reader.parseInt(1, -1));
+                    bh.consume(reader.isBlank(2) ? "Unknown" : reader.trimmed(2));
+                    bh.consume(reader.isBlank(3) ? "Other" : reader.trimmed(3));
+                    bh.consume(reader.parseInt(4, 0));
+                    bh.consume(reader.isBlank(5) ? "Other" : reader.trimmed(5));
+                }
+            }
+        }
+    }
+
+    private static String clean(String input) {
+        return input == null ? "" : input.replaceAll("[\"']", "").trim();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(BookCrossingReaderBenchmark.class.getSimpleName()).build()).run();
+    }
+}
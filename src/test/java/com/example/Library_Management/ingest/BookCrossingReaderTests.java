@@ -0,0 +1,102 @@
+package com.example.Library_Management.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookCrossingReaderTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void splitsFieldsLikeStringSplit() throws Exception {
+        Path file = write("ISBN;Rating;Title;Author;Year;Publisher\n"
+                + "\"0195153448\";\"5\"; Classical Mythology ;Mark P. O. Morford;\"2002\";Oxford University Press\r\n"
+                + "0002005018;0;;  ;'19x1';\n");
+
+        try (BookCrossingReader reader = new BookCrossingReader(file)) {
+            assertTrue(reader.next());
+            assertEquals(6, reader.fieldCount());
+
+            assertTrue(reader.next());
+            assertEquals(6, reader.fieldCount());
+            assertEquals("0195153448", reader.cleaned(0));
+            assertEquals(5, reader.parseInt(1, -1));
+            assertEquals("Classical Mythology", reader.trimmed(2));
+            assertEquals(2002, reader.parseInt(4, 0));
+            assertEquals("Oxford University Press", reader.trimmed(5));
+
+            assertTrue(reader.next());
+            assertEquals(0, reader.parseInt(1, -1));
+            assertTrue(reader.isBlank(2));
+            assertTrue(reader.isBlank(3));
+            assertEquals(0, reader.parseInt(4, 0));
+            assertTrue(reader.isBlank(5));
+
+            assertFalse(reader.next());
+            assertEquals(3, reader.lineNumber());
+        }
+    }
+
+    @Test
+    void decodesLatin1() throws Exception {
+        Path file = dir.resolve("latin1.csv");
+        Files.write(file, "1;2;Café Müller;Renée;1999;X".getBytes(StandardCharsets.ISO_8859_1));
+
+        try (BookCrossingReader reader = new BookCrossingReader(file)) {
+            assertTrue(reader.next());
+            assertEquals("Café Müller", reader.trimmed(2));
+            assertEquals("Renée", reader.trimmed(3));
+        }
+    }
+
+    @Test
+    void remapsRecordsThatStraddleWindows() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            content.append("isbn").append(i).append(";").append(i % 11).append(";Title ").append(i).append(";A;2000;P\n");
+        }
+        Path file = write(content.toString());
+
+        try (BookCrossingReader reader = new BookCrossingReader(file, 64)) {
+            int count = 0;
+            while (reader.next()) {
+                assertEquals("isbn" + count, reader.cleaned(0));
+                assertEquals(count % 11, reader.parseInt(1, -1));
+                assertEquals("Title " + count, reader.trimmed(2));
+                count++;
+            }
+            assertEquals(200, count);
+        }
+    }
+
+    @Test
+    void resumesFromPosition() throws Exception {
+        Path file = write("h\na;1\nb;2\nc;3\n");
+
+        long position;
+        try (BookCrossingReader reader = new BookCrossingReader(file)) {
+            reader.next();
+            reader.next();
+            position = reader.position();
+        }
+        try (BookCrossingReader reader = new BookCrossingReader(file)) {
+            reader.seek(position, 2);
+            assertTrue(reader.next());
+            assertEquals("b", reader.cleaned(0));
+            assertEquals(3, reader.lineNumber());
+        }
+    }
+
+    private Path write(String content) throws Exception {
+        Path file = dir.resolve("data.csv");
+        Files.writeString(file, content, StandardCharsets.ISO_8859_1);
+        return file;
+    }
+}
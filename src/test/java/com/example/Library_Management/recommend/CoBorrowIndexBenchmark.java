@@ -0,0 +1,100 @@
+package com.example.Library_Management.recommend;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds {@link CoBorrowIndex} from synthetic loan history: readers borrow about 20 books each,
+ * with book popularity heavily skewed. Reports build time and prints the heap the built index
+ * retains after each iteration; {@code addLoan} measures one incremental update.
+ * <p>
+ * Run with:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.Library_Management.recommend.CoBorrowIndexBenchmark}
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CoBorrowIndexBenchmark {
+
+    @Param({"10000000"})
+    public int loans;
+
+    @Param({"200000"})
+    public int books;
+
+    private long[] userIds;
+    private long[] bookIds;
+    private long baselineHeap;
+    private CoBorrowIndex index;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void createLoans() {
+        SplittableRandom loanRandom = new SplittableRandom(42);
+        int users = loans / 20;
+        userIds = new long[loans];
+        bookIds = new long[loans];
+        for (int i = 0; i < loans; i++) {
+            userIds[i] = 1 + loanRandom.nextInt(users);
+            // Cubing a uniform draw puts most loans on a small share of the catalog
+            double r = loanRandom.nextDouble();
+            bookIds[i] = 1 + (long) (r * r * r * books);
+        }
+        baselineHeap = usedHeap();
+        index = build();
+        random = new SplittableRandom(7);
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportHeap() {
+        long retained = usedHeap() - baselineHeap;
+        System.out.printf("%n%d books, %d users, %d pairs: index retains %d MB%n",
+                index.bookCount(), index.userCount(), index.pairCount(), retained >> 20);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public CoBorrowIndex buildIndex() {
+        index = null;
+        index = build();
+        return index;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public boolean addLoan() {
+        double r = random.nextDouble();
+        return index.add(1 + random.nextInt(loans / 20), 1 + (long) (r * r * r * books));
+    }
+
+    private CoBorrowIndex build() {
+        CoBorrowIndex.Builder builder = CoBorrowIndex.builder(20, 500);
+        for (int i = 0; i < loans; i++) {
+            builder.add(userIds[i], bookIds[i]);
+        }
+        return builder.build(ForkJoinPool.commonPool());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(CoBorrowIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
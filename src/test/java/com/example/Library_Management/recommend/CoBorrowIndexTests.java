@@ -0,0 +1,74 @@
+package com.example.Library_Management.recommend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoBorrowIndexTests {
+
+    @Test
+    void ranksBooksBorrowedByTheSameReadersFirst() {
+        CoBorrowIndex index = CoBorrowIndex.builder(3, 100)
+                .add(1, 10).add(1, 11).add(1, 12)
+                .add(2, 10).add(2, 11)
+                .add(3, 10).add(3, 11).add(3, 10)
+                .add(4, 13)
+                .build(ForkJoinPool.commonPool());
+
+        List<CoBorrowIndex.Neighbour> neighbours = index.neighbours(10);
+        assertEquals(List.of(11L, 12L), neighbours.stream().map(CoBorrowIndex.Neighbour::bookId).toList());
+        // Three shared readers out of three each
+        assertEquals(1f, neighbours.get(0).score(), 1e-6);
+        assertTrue(index.neighbours(13).isEmpty());
+        assertTrue(index.neighbours(99).isEmpty());
+        assertEquals(8, index.pairCount());
+        assertEquals(4, index.userCount());
+    }
+
+    @Test
+    void newLoansUpdateBothSidesIncrementally() {
+        CoBorrowIndex index = CoBorrowIndex.builder(3, 100)
+                .add(1, 10).add(1, 11)
+                .add(2, 12)
+                .build(ForkJoinPool.commonPool());
+
+        assertTrue(index.add(2, 10));
+        assertFalse(index.add(2, 10));
+        assertEquals(List.of(11L, 12L), index.neighbours(10).stream().map(CoBorrowIndex.Neighbour::bookId).toList());
+        assertEquals(List.of(10L), index.neighbours(12).stream().map(CoBorrowIndex.Neighbour::bookId).toList());
+
+        // A brand-new book and reader
+        assertTrue(index.add(3, 14));
+        assertTrue(index.add(3, 12));
+        assertEquals(List.of(14L, 10L), index.neighbours(12).stream().map(CoBorrowIndex.Neighbour::bookId).toList());
+        assertEquals(List.of(12L), index.neighbours(14).stream().map(CoBorrowIndex.Neighbour::bookId).toList());
+    }
+
+    @Test
+    void heavyReadersAreIgnoredWhenScoring() {
+        CoBorrowIndex index = CoBorrowIndex.builder(3, 2)
+                .add(1, 10).add(1, 11).add(1, 12)
+                .add(2, 10).add(2, 12)
+                .build(ForkJoinPool.commonPool());
+
+        assertEquals(List.of(12L), index.neighbours(10).stream().map(CoBorrowIndex.Neighbour::bookId).toList());
+        assertTrue(index.neighbours(11).isEmpty());
+    }
+
+    @Test
+    void longIntMapGrowsAndKeepsEntries() {
+        LongIntHashMap map = new LongIntHashMap(2);
+        for (int i = 0; i < 10_000; i++) {
+            map.put(i * 7_919L - 5_000L, i);
+        }
+        assertEquals(10_000, map.size());
+        assertEquals(1234, map.get(1234 * 7_919L - 5_000L));
+        assertEquals(-1, map.get(1L));
+        map.put(-5_000L, 42);
+        assertEquals(42, map.get(-5_000L));
+        assertEquals(10_000, map.size());
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.Library_Management.recommend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentIndexTests {
+
+    private static final List<ContentIndex.Document> CATALOG = List.of(
+            new ContentIndex.Document(1, "Harry Potter and the Sorcerer's Stone", "Harry Potter and the Sorcerer's Stone J. K. Rowling Scholastic"),
+            new ContentIndex.Document(2, "Harry Potter and the Chamber of Secrets", "Harry Potter and the Chamber of Secrets J. K. Rowling Scholastic"),
+            new ContentIndex.Document(3, "The Hobbit", "The Hobbit J. R. R. Tolkien Houghton Mifflin"),
+            new ContentIndex.Document(4, "The Fellowship of the Ring", "The Fellowship of the Ring J. R. R. Tolkien Houghton Mifflin"),
+            new ContentIndex.Document(5, "Cooking Basics", "Cooking Basics Anne Chef Kitchen Press"));
+
+    @Test
+    void ranksBooksSharingTermsFirst() {
+        ContentIndex index = ContentIndex.build(CATALOG, 3, 1000, ForkJoinPool.commonPool());
+
+        List<ContentIndex.Neighbour> neighbours = index.neighbours(1);
+        assertEquals(2L, neighbours.get(0).bookId());
+        assertTrue(neighbours.stream().noneMatch(n -> n.bookId() == 5L));
+        assertEquals(4L, index.neighbours(3).get(0).bookId());
+        assertTrue(index.neighbours(5).isEmpty());
+    }
+
+    @Test
+    void addAndRemoveUpdateNeighbourLists() {
+        ContentIndex index = ContentIndex.build(CATALOG, 3, 1000, ForkJoinPool.commonPool());
+
+        index.add(new ContentIndex.Document(6, "Advanced Cooking", "Advanced Cooking Anne Chef Kitchen Press"));
+        assertEquals(6L, index.neighbours(5).get(0).bookId());
+        assertEquals(5L, index.neighbours(6).get(0).bookId());
+
+        index.remove(6);
+        assertTrue(index.neighbours(5).isEmpty());
+        assertFalse(index.contains(6));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void analyzerDropsStopWordsPunctuationAndAddsBigrams() {
+        assertEquals(List.of("harry", "potter", "sorcerers", "stone", "harry potter", "potter sorcerers", "sorcerers stone"),
+                TextAnalyzer.terms("Harry Potter and the Sorcerer's Stone"));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.Library_Management.recommend;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardTests {
+
+    @Test
+    void ordersByScoreThenId() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.add(3, 5);
+        leaderboard.add(1, 5);
+        leaderboard.add(2, 7);
+        leaderboard.add(4, 1);
+
+        assertEquals(List.of(2L, 1L, 3L), leaderboard.top(3));
+
+        leaderboard.add(2, -7);
+        assertEquals(List.of(1L, 3L, 4L), leaderboard.top(5));
+        assertEquals(3, leaderboard.size());
+    }
+
+    @Test
+    void slidingWindowExpiresOldDays() {
+        LocalDate today = LocalDate.of(2024, 5, 10);
+        SlidingWindowLeaderboard week = new SlidingWindowLeaderboard(7);
+        week.record(1, today.minusDays(6), today);
+        week.record(1, today.minusDays(6), today);
+        week.record(2, today, today);
+        week.record(3, today.minusDays(7), today); // Already outside the window
+
+        assertEquals(List.of(1L, 2L), week.top(10, today));
+        assertEquals(List.of(2L), week.top(10, today.plusDays(1)));
+        assertEquals(List.of(), week.top(10, today.plusDays(7)));
+    }
+}
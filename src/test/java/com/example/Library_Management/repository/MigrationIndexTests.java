@@ -0,0 +1,231 @@
+package com.example.Library_Management.repository;
+
+import com.example.Library_Management.service.AlsoBorrowedService;
+import com.example.Library_Management.service.BookSearchService;
+import com.example.Library_Management.service.BookService;
+import com.example.Library_Management.service.CatalogSnapshotService;
+import com.example.Library_Management.service.ContentRecommendationService;
+import com.example.Library_Management.service.DueDateScheduler;
+import com.example.Library_Management.service.LoanService;
+import com.example.Library_Management.service.PopularBooksService;
+import com.example.Library_Management.service.RatingAggregateService;
+import com.example.Library_Management.util.JsonStreamer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Migrates an embedded PostgreSQL with Flyway, has Hibernate validate the entities against it, then
+ * runs each hot repository call and checks with EXPLAIN that the SQL Hibernate sent is answered from
+ * its index. PostgreSQL will not start as root, so the test is skipped there.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({BookService.class, LoanService.class, MigrationIndexTests.CaptureSql.class})
+@DisabledIfSystemProperty(named = "user.name", matches = "root")
+class MigrationIndexTests {
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private OutboxEmailRepository outboxEmailRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockitoBean
+    private RatingAggregateService ratingAggregateService;
+
+    @MockitoBean
+    private ContentRecommendationService contentRecommendationService;
+
+    @MockitoBean
+    private BookSearchService bookSearchService;
+
+    @MockitoBean
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @MockitoBean
+    private PopularBooksService popularBooksService;
+
+    @MockitoBean
+    private DueDateScheduler dueDateScheduler;
+
+    @MockitoBean
+    private AlsoBorrowedService alsoBorrowedService;
+
+    @MockitoBean
+    private JsonStreamer jsonStreamer;
+
+    @TestConfiguration
+    static class CaptureSql {
+
+        @Bean
+        HibernatePropertiesCustomizer statementCapture() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                statements.add(sql);
+                return sql;
+            });
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void bookLookupsUseTheirIndexes() throws SQLException {
+        assertUses("uk_book_isbn", () -> bookRepository.findByIsbn("9780441013593"));
+        assertUses("idx_book_title_trgm", () -> bookRepository.findByTitleContainingIgnoreCase("dune", PageRequest.of(0, 20)));
+        assertUses("idx_book_title", () -> bookService.listBooks(null, null, null, "title", null, 50));
+        assertUses("idx_book_author", () -> bookService.listBooks("Frank Herbert", null, null, "id", null, 50));
+        assertUses("idx_book_publisher", () -> bookService.listBooks(null, "Ace", null, "id", null, 50));
+    }
+
+    @Test
+    void userLookupsUseTheirIndexes() throws SQLException {
+        assertUses("uk_users_username", () -> userRepository.findByUsername("reader"));
+        assertUses("uk_users_email", () -> userRepository.findByEmail("reader@example.com"));
+    }
+
+    @Test
+    void loanLookupsUseTheirIndexes() throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        assertUses("idx_loan_user_id", () -> loanRepository.findByUser_IdAndReturnDateIsNullOrderByIdAsc(1L));
+        assertUses("idx_loan_open_due", () -> loanRepository.findOverduePage(now, 0L, 0L, PageRequest.of(0, 50)));
+        assertUses("idx_loan_book_id", () -> loanService.listLoans("all", null, 1L, "id", null, 50));
+        assertUses("idx_loan_loan_date", () -> loanRepository.findBookIdAndLoanDateSince(now.minusDays(7)));
+    }
+
+    @Test
+    void ratingLookupsUseTheirIndexes() throws SQLException {
+        assertUses("idx_rating_book", () -> ratingRepository.aggregateForBook(1L));
+        assertUses("uk_rating_user_book", () -> ratingRepository.findByUser_IdAndBook_Id(1L, 1L));
+    }
+
+    @Test
+    void outboxQueriesUseTheirIndexes() throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        assertUses("idx_outbox_email_due", () -> outboxEmailRepository.lockDue(now, PageRequest.of(0, 50)));
+        assertUses("idx_outbox_email_sent", () -> outboxEmailRepository.deleteSentBefore(now.minusDays(7)));
+    }
+
+    /**
+     * Runs the call, then explains every statement it sent as a generic plan, the way a prepared
+     * statement would be planned without its parameter values.
+     */
+    private void assertUses(String index, Runnable call) throws SQLException {
+        statements.clear();
+        call.run();
+        assertFalse(statements.isEmpty(), "no SQL was sent for " + index);
+
+        List<String> plans = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            // The tables are empty and so cheapest to scan; make the planner show the index it would use
+            statement.execute("set enable_seqscan = off");
+            statement.execute("set plan_cache_mode = force_generic_plan");
+            for (String sql : statements) {
+                plans.add(explain(statement, sql));
+            }
+        }
+        String plan = String.join("\n", plans);
+        assertTrue(Arrays.asList(plan.split("\\s+")).contains(index), index + " not used by\n" + plan);
+    }
+
+    private static String explain(Statement statement, String sql) throws SQLException {
+        int parameters = 0;
+        StringBuilder numbered = new StringBuilder();
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameters);
+            } else {
+                numbered.append(c);
+            }
+        }
+        statement.execute("prepare hot_query as " + numbered);
+        StringBuilder plan = new StringBuilder();
+        String arguments = parameters == 0 ? "" : "(" + String.join(", ", Collections.nCopies(parameters, "null")) + ")";
+        try (ResultSet rows = statement.executeQuery("explain execute hot_query" + arguments)) {
+            while (rows.next()) {
+                plan.append(rows.getString(1)).append('\n');
+            }
+        } finally {
+            statement.execute("deallocate hot_query");
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.Library_Management.repository;
+
+import com.example.Library_Management.model.Book;
+import com.example.Library_Management.model.User;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The batch upsert is PostgreSQL-only, so this runs against an embedded PostgreSQL, which will not
+ * start as root; the test is skipped there.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisabledIfSystemProperty(named = "user.name", matches = "root")
+class RatingRepositoryTests {
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void upsertAllSkipsRatingsOfDeletedBooksAndUsers() {
+        User reader = new User();
+        reader.setUsername("reader");
+        reader.setRole("ROLE_EMPLOYEE");
+        reader = userRepository.saveAndFlush(reader);
+        Book kept = bookRepository.saveAndFlush(new Book(null, "Dune", "Herbert", "isbn-1", 1965, "Chilton", 1, 1));
+        Book deleted = bookRepository.saveAndFlush(new Book(null, "Emma", "Austen", "isbn-2", 1815, "Murray", 1, 1));
+        bookRepository.delete(deleted);
+        bookRepository.flush();
+
+        List<Object[]> rows = ratingRepository.upsertAll(
+                new long[]{reader.getId(), reader.getId(), reader.getId() + 1000},
+                new long[]{kept.getId(), deleted.getId(), kept.getId()},
+                new int[]{4, 5, 3});
+
+        assertEquals(1, rows.size());
+        assertEquals(kept.getId(), rows.get(0)[0]);
+        assertEquals(1, ratingRepository.count());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.Library_Management.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookSearchIndexTests {
+
+    private BookSearchIndex sampleIndex() {
+        BookSearchIndex index = new BookSearchIndex();
+        index.add(1, "The Lord of the Rings", "J. R. R. Tolkien");
+        index.add(2, "The Hobbit", "J. R. R. Tolkien");
+        index.add(3, "Harry Potter and the Chamber of Secrets", "J. K. Rowling");
+        index.add(4, "Lord of the Flies", "William Golding");
+        index.add(5, "lord of the flies", "W. Golding");
+        return index;
+    }
+
+    @Test
+    void substringMatchesIgnoreCaseWithExactTitleFirst() {
+        BookSearchIndex index = sampleIndex();
+
+        assertEquals(List.of(1L, 4L, 5L), index.findByTitleContaining("LORD OF", 10));
+        assertEquals(List.of(4L, 5L), index.findByTitleContaining("Lord of the Flies", 10));
+        assertEquals(List.of(3L), index.findByTitleContaining("harry potter and the chamber of secrets", 10));
+        assertEquals(List.of(3L), index.findByTitleContaining("chamber", 10));
+        assertEquals(List.of(2L), index.findByTitleContaining("obb", 10));
+        assertTrue(index.findByTitleContaining("xyz", 10).isEmpty());
+    }
+
+    @Test
+    void shortQueriesAndLimits() {
+        BookSearchIndex index = sampleIndex();
+
+        assertEquals(List.of(2L), index.findByTitleContaining("ob", 10));
+        assertEquals(List.of(3L), index.findByTitleContaining("y", 10));
+        assertEquals(2, index.findByTitleContaining("the", 2).size());
+
+        index.remove(2);
+        assertTrue(index.findByTitleContaining("ob", 10).isEmpty());
+    }
+
+    @Test
+    void removeAndReAddReflectLatestState() {
+        BookSearchIndex index = sampleIndex();
+        index.remove(2);
+        assertTrue(index.findByTitleContaining("hobbit", 10).isEmpty());
+
+        index.add(4, "Lord of the Flies (Annotated)", "William Golding");
+        assertEquals(List.of(4L), index.findByTitleContaining("annotated", 10));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void autocompletePrefersTitlePrefixThenWordPrefix() {
+        BookSearchIndex index = sampleIndex();
+
+        assertEquals(List.of("Lord of the Flies", "lord of the flies", "The Lord of the Rings"), index.autocomplete("lor", 10));
+        assertEquals(List.of("Harry Potter and the Chamber of Secrets"), index.autocomplete("cham", 10));
+        assertEquals(1, index.autocomplete("lor", 1).size());
+    }
+
+    @Test
+    void rankedSearchCombinesTitleAndAuthor() {
+        BookSearchIndex index = sampleIndex();
+
+        // Matching both words ranks above matching only the author
+        assertEquals(List.of(2L, 1L), index.search("tolkien hobbit", 5));
+        assertEquals(List.of(3L), index.search("rowl", 5));
+        assertEquals(List.of(4L, 5L), index.search("golding flies", 5).stream().sorted().toList());
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.model.Book;
+import com.example.Library_Management.repository.BookRepository;
+import com.example.Library_Management.repository.RatingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BookServiceCacheTests {
+
+    private BookRepository bookRepository;
+    private RatingAggregateService ratingAggregateService;
+    private ContentRecommendationService contentRecommendationService;
+    private BookSearchService bookSearchService;
+    private SimpleMeterRegistry meterRegistry;
+    private BookService bookService;
+    private Book stored;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = mock(BookRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        bookService = new BookService();
+        ratingAggregateService = mock(RatingAggregateService.class);
+        ReflectionTestUtils.setField(bookService, "bookRepository", bookRepository);
+        ReflectionTestUtils.setField(bookService, "ratingRepository", mock(RatingRepository.class));
+        ReflectionTestUtils.setField(bookService, "ratingAggregateService", ratingAggregateService);
+        contentRecommendationService = mock(ContentRecommendationService.class);
+        ReflectionTestUtils.setField(bookService, "contentRecommendationService", contentRecommendationService);
+        bookSearchService = mock(BookSearchService.class);
+        ReflectionTestUtils.setField(bookService, "bookSearchService", bookSearchService);
+        ReflectionTestUtils.setField(bookService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(bookService, "catalogSnapshotService", mock(CatalogSnapshotService.class));
+        ReflectionTestUtils.setField(bookService, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(bookService, "cacheExpireAfterWrite", Duration.ofMinutes(10));
+        bookService.init();
+
+        stored = new Book(1L, "Dune", "Herbert", "isbn-1", 1965, "Chilton", 3, 3);
+        when(bookRepository.findById(1L)).thenAnswer(invocation -> Optional.of(copy(stored)));
+        when(bookRepository.findByIsbn("isbn-1")).thenAnswer(invocation -> Optional.of(copy(stored)));
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> {
+            stored = copy(invocation.getArgument(0));
+            return stored;
+        });
+    }
+
+    @Test
+    void repeatedLookupsHitTheCacheAndReturnIndependentCopies() {
+        Book first = bookService.getBookById(1L);
+        first.setTitle("Edited but not saved");
+        Book second = bookService.getBookById(1L);
+        Book byIsbn = bookService.getBookByIsbn("isbn-1");
+
+        assertEquals("Dune", second.getTitle());
+        assertEquals("Dune", byIsbn.getTitle());
+        verify(bookRepository, times(1)).findById(1L);
+        verify(bookRepository, times(1)).findByIsbn("isbn-1");
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "books").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "books").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void savingAndLendingEvictTheBook() {
+        Book book = bookService.getBookById(1L);
+        book.setIsbn("isbn-2");
+        bookService.save(book);
+
+        assertEquals("isbn-2", bookService.getBookById(1L).getIsbn());
+        // The old ISBN no longer resolves to the book
+        when(bookRepository.findByIsbn("isbn-1")).thenReturn(Optional.empty());
+        assertThrows(RuntimeException.class, () -> bookService.getBookByIsbn("isbn-1"));
+
+        stored.setAvailableCopies(2); // As takeCopy would, behind the cache's back
+        assertEquals(3, bookService.getBookById(1L).getAvailableCopies());
+        bookService.evictBook(1L);
+        assertEquals(2, bookService.getBookById(1L).getAvailableCopies());
+    }
+
+    @Test
+    void rolledBackDeleteLeavesInMemoryStateAlone() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookService.deleteBook(1L);
+            verify(ratingAggregateService, never()).removeBook(1L);
+            verify(contentRecommendationService, never()).onBookDeleted(1L);
+            verify(bookSearchService, never()).onBookDeleted(1L);
+        } finally {
+            // Ends without running the afterCommit callbacks, as a rollback would
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        bookService.deleteBook(1L);
+        verify(ratingAggregateService).removeBook(1L);
+        verify(contentRecommendationService).onBookDeleted(1L);
+        verify(bookSearchService).onBookDeleted(1L);
+    }
+
+    private static Book copy(Book book) {
+        return new Book(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(), book.getYear(),
+                book.getPublisher(), book.getTotalCopies(), book.getAvailableCopies());
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.controller.BookController;
+import com.example.Library_Management.model.Book;
+import com.example.Library_Management.repository.BookRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@DataJpaTest(properties = "catalog.min-rebuild-interval=0s")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CatalogSnapshotService.class, CatalogSnapshotServiceTests.Beans.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogSnapshotServiceTests {
+
+    @TestConfiguration
+    static class Beans {
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Book dune;
+    private Book emma;
+
+    @BeforeEach
+    void setUp() {
+        dune = bookRepository.save(book("Dune", 3));
+        emma = bookRepository.save(book("Emma", 1));
+        catalogSnapshotService.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void rebuildsOnlyWhenABookChanges() throws Exception {
+        CatalogSnapshotService.Snapshot first = catalogSnapshotService.current();
+        assertSame(first, catalogSnapshotService.current());
+        assertEquals(2, first.books());
+        assertEquals(objectMapper.readTree(first.json()), objectMapper.readTree(gunzip(first.gzip())));
+
+        // Marked but not actually different: same content, same tag
+        catalogSnapshotService.markChanged(dune.getId());
+        CatalogSnapshotService.Snapshot unchanged = catalogSnapshotService.current();
+        assertNotSame(first, unchanged);
+        assertEquals(first.etag(), unchanged.etag());
+
+        dune.setAvailableCopies(2);
+        bookRepository.save(dune);
+        catalogSnapshotService.markChanged(dune.getId());
+        bookRepository.deleteById(emma.getId());
+        catalogSnapshotService.markChanged(emma.getId());
+        Book carrie = bookRepository.save(book("Carrie", 1));
+        catalogSnapshotService.markChanged(carrie.getId());
+
+        CatalogSnapshotService.Snapshot patched = catalogSnapshotService.current();
+        assertNotEquals(first.etag(), patched.etag());
+        JsonNode books = objectMapper.readTree(patched.json());
+        assertEquals(2, books.size());
+        assertEquals("Dune", books.get(0).get("title").asText());
+        assertEquals(2, books.get(0).get("availableCopies").asInt());
+        assertEquals("Carrie", books.get(1).get("title").asText());
+    }
+
+    @Test
+    void answersRepeatRequestsWithNotModified() throws Exception {
+        BookController controller = new BookController();
+        ReflectionTestUtils.setField(controller, "bookService", mock(BookService.class));
+        ReflectionTestUtils.setField(controller, "catalogSnapshotService", catalogSnapshotService);
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        MvcResult gzipped = mvc.perform(get("/api/books/catalog").header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+        assertTrue(gzipped.getResponse().getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzipped.getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(etag.endsWith("-gz\""), etag);
+        assertEquals(2, objectMapper.readTree(gunzip(gzipped.getResponse().getContentAsByteArray())).size());
+
+        mvc.perform(get("/api/books/catalog").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        MvcResult plain = mvc.perform(get("/api/books/catalog")).andExpect(status().isOk()).andReturn();
+        assertNotEquals(etag, plain.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(2, objectMapper.readTree(plain.getResponse().getContentAsByteArray()).size());
+
+        catalogSnapshotService.markChanged(dune.getId());
+        dune.setTitle("Dune Messiah");
+        bookRepository.save(dune);
+        mvc.perform(get("/api/books/catalog").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        // Pages are tagged with the catalog version and skip the query while it is unchanged
+        String pageTag = mvc.perform(get("/api/books").param("limit", "10"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mvc.perform(get("/api/books").param("limit", "10").header(HttpHeaders.IF_NONE_MATCH, pageTag))
+                .andExpect(status().isNotModified());
+        catalogSnapshotService.markChanged(emma.getId());
+        mvc.perform(get("/api/books").param("limit", "10").header(HttpHeaders.IF_NONE_MATCH, pageTag))
+                .andExpect(status().isOk());
+    }
+
+    private static Book book(String title, int copies) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setTotalCopies(copies);
+        book.setAvailableCopies(copies);
+        return book;
+    }
+
+    private static byte[] gunzip(byte[] body) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+}
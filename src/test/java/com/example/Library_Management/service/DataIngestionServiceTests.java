@@ -0,0 +1,129 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.ingest.IngestionProgress;
+import com.example.Library_Management.model.Book;
+import com.example.Library_Management.model.IngestionJob;
+import com.example.Library_Management.repository.BookRepository;
+import com.example.Library_Management.repository.IngestionJobRepository;
+import com.example.Library_Management.repository.RatingRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against an embedded PostgreSQL because ingestion inserts books with ON CONFLICT, which H2
+ * does not have. PostgreSQL will not start as root, so the test is skipped there.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(DataIngestionService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisabledIfSystemProperty(named = "user.name", matches = "root")
+class DataIngestionServiceTests {
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private DataIngestionService dataIngestionService;
+
+    @Autowired
+    private IngestionJobRepository jobRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @MockitoBean
+    private RatingAggregateService ratingAggregateService;
+
+    @MockitoBean
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @TempDir
+    private Path dir;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void concurrentJobsShareBooksWithTheSameIsbn() throws Exception {
+        bookRepository.save(new Book(null, "Title 5", "A", "isbn5", 2000, "P", 1, 1));
+        // Both files rate the same 3000 ISBNs in different orders, over several chunks each
+        IngestionJob first = job("first.csv", 0);
+        IngestionJob second = job("second.csv", 1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> a = executor.submit(() -> {
+                dataIngestionService.ingest(first, new IngestionProgress(first));
+                return null;
+            });
+            Future<?> b = executor.submit(() -> {
+                dataIngestionService.ingest(second, new IngestionProgress(second));
+                return null;
+            });
+            a.get();
+            b.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(3000, bookRepository.count());
+        assertEquals(24000, ratingRepository.count());
+        assertEquals(2999, jobRepository.findAll().stream().mapToLong(IngestionJob::getBooksInserted).sum());
+    }
+
+    private IngestionJob job(String name, int seed) throws IOException {
+        StringBuilder content = new StringBuilder("ISBN;Rating;Title;Author;Year;Publisher\n");
+        for (int i = 0; i < 12000; i++) {
+            int n = (i * 7 + seed) % 3000;
+            content.append("isbn").append(n).append(";5;Title ").append(n).append(";A;2000;P\n");
+        }
+        Path file = dir.resolve(name);
+        Files.writeString(file, content);
+        IngestionJob job = new IngestionJob();
+        job.setFilePath(file.toString());
+        job.setFileSize(Files.size(file));
+        job.setStatus(IngestionJob.Status.RUNNING);
+        return jobRepository.save(job);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.model.Book;
+import com.example.Library_Management.model.Loan;
+import com.example.Library_Management.model.User;
+import com.example.Library_Management.repository.LoanRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DueDateSchedulerTests {
+
+    private static final long DAY = Duration.ofDays(1).toMillis();
+
+    private LoanRepository loanRepository;
+    private EmailService emailService;
+    private DueDateScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        loanRepository = mock(LoanRepository.class);
+        emailService = mock(EmailService.class);
+        scheduler = new DueDateScheduler();
+        ReflectionTestUtils.setField(scheduler, "loanRepository", loanRepository);
+        ReflectionTestUtils.setField(scheduler, "emailService", emailService);
+        ReflectionTestUtils.setField(scheduler, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(scheduler, "reminderBefore", Duration.ofDays(1));
+        ReflectionTestUtils.setField(scheduler, "overdueEvery", Duration.ofDays(7));
+        ReflectionTestUtils.setField(scheduler, "batchSize", 100);
+        scheduler.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void remindsTheDayBeforeThenOnTheDueDateThenWeekly() {
+        LocalDateTime dueDate = LocalDateTime.of(2030, 1, 10, 12, 0);
+        long due = dueDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        DueDateScheduler.DueEvent first = scheduler.next(1L, dueDate, due - 3 * DAY);
+        assertEquals(DueDateScheduler.Kind.REMINDER, first.kind);
+        assertEquals(due - DAY, first.fireAt);
+
+        DueDateScheduler.DueEvent second = scheduler.next(1L, dueDate, first.fireAt);
+        assertEquals(DueDateScheduler.Kind.DUE, second.kind);
+        assertEquals(due, second.fireAt);
+
+        DueDateScheduler.DueEvent third = scheduler.next(1L, dueDate, second.fireAt);
+        assertEquals(DueDateScheduler.Kind.OVERDUE, third.kind);
+        assertEquals(due + 7 * DAY, third.fireAt);
+
+        // Rescheduled well past due: the next weekly mark, not a burst of missed ones
+        assertEquals(due + 35 * DAY, scheduler.next(1L, dueDate, due + 30 * DAY).fireAt);
+    }
+
+    @Test
+    void firesWhenDueAndSkipsReturnedLoans() {
+        when(loanRepository.findOpenLoanIdAndDueDate()).thenReturn(List.of());
+        // Reminders are due a day early, so these fire a fraction of a second from now
+        LocalDateTime dueDate = LocalDateTime.now().plusDays(1).plusNanos(200_000_000);
+        Loan kept = loan(1L, dueDate);
+        when(loanRepository.findByIdIn(any())).thenReturn(List.of(kept));
+
+        scheduler.startOnStartup();
+        scheduler.schedule(1L, dueDate);
+        scheduler.schedule(2L, dueDate);
+        scheduler.cancel(2L);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SimpleMailMessage>> sent = ArgumentCaptor.forClass(List.class);
+        verify(emailService, timeout(5000)).sendAll(sent.capture());
+        verify(loanRepository).findByIdIn(Set.of(1L));
+        assertEquals(1, sent.getValue().size());
+        assertEquals("Library Book Due Tomorrow", sent.getValue().get(0).getSubject());
+        assertArrayEquals(new String[]{"reader@example.com"}, sent.getValue().get(0).getTo());
+        assertEquals(1, scheduler.size()); // Now waiting for the due date
+    }
+
+    @Test
+    void sendsNoticesMissedWhileDownAtStartup() {
+        LocalDateTime overdue = LocalDateTime.now().minusDays(3);
+        LocalDateTime dueSoon = LocalDateTime.now().plusHours(2);
+        LocalDateTime later = LocalDateTime.now().plusDays(5);
+        when(loanRepository.findOpenLoanIdAndDueDate()).thenReturn(List.of(
+                new Object[]{1L, overdue}, new Object[]{2L, dueSoon}, new Object[]{3L, later}));
+        when(loanRepository.findByIdIn(Set.of(1L, 2L))).thenReturn(List.of(loan(1L, overdue), loan(2L, dueSoon)));
+
+        scheduler.startOnStartup();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SimpleMailMessage>> sent = ArgumentCaptor.forClass(List.class);
+        verify(emailService, timeout(5000)).sendAll(sent.capture());
+        assertEquals(Set.of("Library Book Overdue Notice", "Library Book Due Tomorrow"),
+                Set.copyOf(sent.getValue().stream().map(SimpleMailMessage::getSubject).toList()));
+        // All three stay scheduled: the next weekly notice, the due-date notice and the reminder
+        assertEquals(3, scheduler.size());
+    }
+
+    private static Loan loan(Long id, LocalDateTime dueDate) {
+        User user = new User();
+        user.setUsername("reader");
+        user.setEmail("reader@example.com");
+        Book book = new Book();
+        book.setId(7L);
+        book.setTitle("Dune");
+        Loan loan = new Loan();
+        loan.setId(id);
+        loan.setUser(user);
+        loan.setBook(book);
+        loan.setDueDate(dueDate);
+        return loan;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.model.OutboxEmail;
+import com.example.Library_Management.repository.OutboxEmailRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// No backoff so a failing message runs through all of its attempts in one drain. The scheduled poll
+// is pushed out so only the test's own drain() sends mail
+@DataJpaTest(properties = {
+        "email.outbox.batch-size=3",
+        "email.outbox.max-per-second=0",
+        "email.outbox.max-attempts=3",
+        "email.outbox.initial-backoff=0s",
+        "email.outbox.poll-ms=3600000"})
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmailService.class, EmailDispatcher.class, EmailDispatcherTests.MailConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmailDispatcherTests {
+
+    @RegisterExtension
+    static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @TestConfiguration
+    static class MailConfig {
+        @Bean
+        JavaMailSender mailSender() {
+            JavaMailSenderImpl sender = new JavaMailSenderImpl();
+            sender.setHost("localhost");
+            sender.setPort(ServerSetupTest.SMTP.getPort());
+            return sender;
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailDispatcher emailDispatcher;
+
+    @Autowired
+    private OutboxEmailRepository outboxEmailRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        outboxEmailRepository.deleteAll();
+    }
+
+    @Test
+    void queuesWithTheCallersTransactionAndDeliversInBatches() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            for (int i = 0; i < 7; i++) {
+                emailService.sendEmail("reader" + i + "@example.com", "Hello " + i, "Body " + i);
+            }
+        });
+        transaction.executeWithoutResult(status -> {
+            emailService.sendEmail("ghost@example.com", "Rolled back", "Never stored");
+            status.setRollbackOnly();
+        });
+        assertEquals(7, outboxEmailRepository.countByStatus(OutboxEmail.Status.PENDING));
+        assertEquals(0, smtp.getReceivedMessages().length);
+        double sentBefore = meterRegistry.get("library.email.sent").counter().count();
+        long batchesBefore = meterRegistry.get("library.email.batch").timer().count();
+
+        assertEquals(7, emailDispatcher.drain());
+
+        assertEquals(7, smtp.getReceivedMessages().length);
+        assertEquals(7, outboxEmailRepository.countByStatus(OutboxEmail.Status.SENT));
+        assertEquals(7.0, meterRegistry.get("library.email.sent").counter().count() - sentBefore);
+        assertEquals(3, meterRegistry.get("library.email.batch").timer().count() - batchesBefore);
+        assertEquals(0.0, meterRegistry.get("library.email.outbox.depth").gauge().value());
+        assertEquals(0, emailDispatcher.drain());
+    }
+
+    @Test
+    void retriesAndThenDeadLettersWhenTheServerIsDown() {
+        smtp.stop();
+        emailService.sendEmail("a@example.com", "Hello", "Body");
+        emailService.sendEmail("b@example.com", "Hello", "Body");
+        double retriedBefore = meterRegistry.get("library.email.retried").counter().count();
+        double deadBefore = meterRegistry.get("library.email.dead").counter().count();
+
+        emailDispatcher.drain();
+
+        List<OutboxEmail> emails = outboxEmailRepository.findAll();
+        assertTrue(emails.stream().allMatch(email -> email.getStatus() == OutboxEmail.Status.DEAD));
+        assertTrue(emails.stream().allMatch(email -> email.getAttempts() == 3 && email.getLastError() != null));
+        assertEquals(4.0, meterRegistry.get("library.email.retried").counter().count() - retriedBefore);
+        assertEquals(2.0, meterRegistry.get("library.email.dead").counter().count() - deadBefore);
+    }
+
+    @Test
+    void backoffDoublesUpToTheCap() {
+        EmailDispatcher dispatcher = new EmailDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "initialBackoff", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(dispatcher, "maxBackoff", Duration.ofHours(1));
+
+        assertEquals(Duration.ofSeconds(30), dispatcher.backoff(1));
+        assertEquals(Duration.ofMinutes(1), dispatcher.backoff(2));
+        assertEquals(Duration.ofMinutes(16), dispatcher.backoff(6));
+        assertEquals(Duration.ofHours(1), dispatcher.backoff(8));
+        assertEquals(Duration.ofHours(1), dispatcher.backoff(100));
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.model.Book;
+import com.example.Library_Management.model.Loan;
+import com.example.Library_Management.model.User;
+import com.example.Library_Management.repository.BookRepository;
+import com.example.Library_Management.repository.LoanRepository;
+import com.example.Library_Management.repository.UserRepository;
+import com.example.Library_Management.util.JsonStreamer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(LoanService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Every service call commits on its own
+class LoanServiceConcurrencyTests {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 50;
+    private static final int COPIES = 100;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private PopularBooksService popularBooksService;
+
+    @MockitoBean
+    private DueDateScheduler dueDateScheduler;
+
+    @MockitoBean
+    private AlsoBorrowedService alsoBorrowedService;
+
+    @MockitoBean
+    private BookService bookService;
+
+    @MockitoBean
+    private JsonStreamer jsonStreamer;
+
+    private Long bookId;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        Book book = new Book();
+        book.setTitle("Dune");
+        book.setTotalCopies(COPIES);
+        book.setAvailableCopies(COPIES);
+        bookId = bookRepository.save(book).getId();
+
+        User user = new User();
+        user.setUsername("reader");
+        user.setRole("ROLE_EMPLOYEE");
+        userId = userRepository.save(user).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        loanRepository.deleteAll();
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentBorrowsNeverOversell() throws Exception {
+        AtomicInteger soldOut = new AtomicInteger();
+        List<Loan> loans = Collections.synchronizedList(new ArrayList<>());
+        runConcurrently(THREADS, () -> {
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                try {
+                    loans.add(loanService.lendBook(bookId, userId, 7));
+                } catch (RuntimeException e) {
+                    assertEquals("No available copies for this book", e.getMessage());
+                    soldOut.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(COPIES, loans.size());
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD - COPIES, soldOut.get());
+        assertEquals(0, bookRepository.findById(bookId).orElseThrow().getAvailableCopies());
+        assertEquals(COPIES, loanRepository.count());
+
+        // Return everything concurrently; each loan is returned twice but only counted once
+        ConcurrentLinkedQueue<Long> toReturn = new ConcurrentLinkedQueue<>();
+        loans.forEach(loan -> {
+            toReturn.add(loan.getId());
+            toReturn.add(loan.getId());
+        });
+        AtomicInteger alreadyReturned = new AtomicInteger();
+        runConcurrently(THREADS, () -> {
+            Long loanId;
+            while ((loanId = toReturn.poll()) != null) {
+                try {
+                    loanService.returnBook(loanId);
+                } catch (RuntimeException e) {
+                    assertEquals("Book already returned", e.getMessage());
+                    alreadyReturned.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(COPIES, alreadyReturned.get());
+        assertEquals(COPIES, bookRepository.findById(bookId).orElseThrow().getAvailableCopies());
+        assertTrue(loanRepository.findAll().stream().allMatch(loan -> loan.getReturnDate() != null));
+    }
+
+    @Test
+    void failedBorrowLeavesInventoryUntouched() {
+        assertThrows(RuntimeException.class, () -> loanService.lendBook(bookId, -1L, 7));
+        assertEquals(COPIES, bookRepository.findById(bookId).orElseThrow().getAvailableCopies());
+
+        RuntimeException missing = assertThrows(RuntimeException.class, () -> loanService.lendBook(-1L, userId, 7));
+        assertEquals("Book not found", missing.getMessage());
+        assertEquals(0, loanRepository.count());
+    }
+
+    private static void runConcurrently(int threads, Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.dto.CursorPage;
+import com.example.Library_Management.dto.LoanView;
+import com.example.Library_Management.model.Book;
+import com.example.Library_Management.model.Loan;
+import com.example.Library_Management.model.User;
+import com.example.Library_Management.repository.BookRepository;
+import com.example.Library_Management.repository.LoanRepository;
+import com.example.Library_Management.repository.UserRepository;
+import com.example.Library_Management.util.JsonStreamer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(LoanService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LoanServiceTests {
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private PopularBooksService popularBooksService;
+
+    @MockitoBean
+    private DueDateScheduler dueDateScheduler;
+
+    @MockitoBean
+    private AlsoBorrowedService alsoBorrowedService;
+
+    @MockitoBean
+    private BookService bookService;
+
+    @MockitoBean
+    private JsonStreamer jsonStreamer;
+
+    private Book book;
+    private User reader;
+    private User other;
+
+    @BeforeEach
+    void setUp() {
+        book = new Book();
+        book.setTitle("Dune");
+        book.setTotalCopies(10);
+        book.setAvailableCopies(10);
+        book = bookRepository.save(book);
+        reader = saveUser("reader");
+        other = saveUser("other");
+    }
+
+    @AfterEach
+    void tearDown() {
+        loanRepository.deleteAll();
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void activeLoansAreCachedUntilTheUserBorrowsOrReturns() {
+        Loan first = loanService.lendBook(book.getId(), reader.getId(), 7);
+        loanService.lendBook(book.getId(), other.getId(), 7);
+        assertEquals(List.of(first.getId()), ids(loanService.getLoansByUser(reader.getId(), "active", null, null, 50)));
+
+        // Written behind the service's back, so only visible once the entry is invalidated
+        Loan sneaky = new Loan();
+        sneaky.setBook(book);
+        sneaky.setUser(reader);
+        sneaky.setLoanDate(LocalDateTime.now());
+        sneaky.setDueDate(LocalDateTime.now().plusDays(7));
+        loanRepository.save(sneaky);
+        assertEquals(List.of(first.getId()), ids(loanService.getLoansByUser(reader.getId(), "active", null, null, 50)));
+
+        Loan second = loanService.lendBook(book.getId(), reader.getId(), 7);
+        assertEquals(List.of(first.getId(), sneaky.getId(), second.getId()),
+                ids(loanService.getLoansByUser(reader.getId(), "active", null, null, 50)));
+
+        loanService.returnBook(first.getId());
+        assertEquals(List.of(sneaky.getId(), second.getId()),
+                ids(loanService.getLoansByUser(reader.getId(), "active", null, null, 50)));
+    }
+
+    @Test
+    void historyIsPagedPerUser() {
+        List<Long> returned = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Loan loan = loanService.lendBook(book.getId(), reader.getId(), 7);
+            loanService.returnBook(loan.getId());
+            returned.add(0, loan.getId());
+        }
+        loanService.lendBook(book.getId(), other.getId(), 7);
+
+        CursorPage<LoanView> page = loanService.getLoansByUser(reader.getId(), "returned", "-id", null, 3);
+        assertEquals(returned.subList(0, 3), ids(page));
+        CursorPage<LoanView> next = loanService.getLoansByUser(reader.getId(), "returned", "-id", page.getNextCursor(), 3);
+        assertEquals(returned.subList(3, 5), ids(next));
+        assertNull(next.getNextCursor());
+        assertTrue(loanService.getLoansByUser(reader.getId(), "overdue", null, null, 50).getItems().isEmpty());
+    }
+
+    @Test
+    void changingTotalCopiesKeepsCopiesOnLoanCounted() {
+        loanService.lendBook(book.getId(), reader.getId(), 7);
+        loanService.lendBook(book.getId(), other.getId(), 7);
+
+        assertEquals(1, setTotalCopies(12));
+        assertEquals(10, bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies());
+        // Two copies are out, so the total cannot drop to one
+        assertEquals(0, setTotalCopies(1));
+        assertEquals(1, setTotalCopies(2));
+        assertEquals(0, bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies());
+    }
+
+    @Test
+    void badFiltersFailBeforeAnythingIsStreamed() {
+        assertThrows(IllegalArgumentException.class, () -> loanService.streamLoans("late", null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> loanService.streamLoans("all", null, null, "isbn"));
+    }
+
+    private int setTotalCopies(int totalCopies) {
+        return new TransactionTemplate(transactionManager).execute(status ->
+                bookRepository.updateDetails(book.getId(), "Dune", "Herbert", null, 1965, null, totalCopies));
+    }
+
+    private User saveUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setRole("ROLE_EMPLOYEE");
+        return userRepository.save(user);
+    }
+
+    private static List<Long> ids(CursorPage<LoanView> page) {
+        return page.getItems().stream().map(LoanView::getId).toList();
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.dto.NotificationReport;
+import com.example.Library_Management.model.Book;
+import com.example.Library_Management.model.Loan;
+import com.example.Library_Management.model.User;
+import com.example.Library_Management.repository.BookRepository;
+import com.example.Library_Management.repository.LoanRepository;
+import com.example.Library_Management.repository.OutboxEmailRepository;
+import com.example.Library_Management.repository.UserRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Small pages and batches so users' loans straddle page boundaries and digests span several batches.
+// The scheduled poll is pushed out so only the test's own drain() sends mail
+@DataJpaTest(properties = {
+        "notifications.overdue.page-size=3",
+        "notifications.overdue.batch-size=2",
+        "email.outbox.batch-size=3",
+        "email.outbox.max-per-second=0",
+        "email.outbox.poll-ms=3600000"})
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OverdueNotificationService.class, EmailService.class, EmailDispatcher.class, OverdueNotificationServiceTests.MailConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OverdueNotificationServiceTests {
+
+    @RegisterExtension
+    static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @TestConfiguration
+    static class MailConfig {
+        @Bean
+        JavaMailSender mailSender() {
+            JavaMailSenderImpl sender = new JavaMailSenderImpl();
+            sender.setHost("localhost");
+            sender.setPort(ServerSetupTest.SMTP.getPort());
+            return sender;
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private OverdueNotificationService overdueNotificationService;
+
+    @Autowired
+    private EmailDispatcher emailDispatcher;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private OutboxEmailRepository outboxEmailRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Loans are created round-robin so no user's loans are adjacent by id
+        List<User> users = List.of(saveUser("u1", "u1@example.com"), saveUser("u2", "u2@example.com"),
+                saveUser("u3", "u3@example.com"), saveUser("u4", "u4@example.com"), saveUser("nomail", null));
+        for (int round = 0; round < 4; round++) {
+            for (int u = 0; u < users.size(); u++) {
+                if (round <= u) {
+                    saveLoan(users.get(u), "Book " + u + "-" + round, -2, false);
+                }
+            }
+        }
+        saveLoan(users.get(0), "Returned", -2, true);
+        saveLoan(users.get(0), "Not yet due", 5, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxEmailRepository.deleteAll();
+        loanRepository.deleteAll();
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void sendsOneDigestPerUserListingEveryOverdueBook() throws Exception {
+        NotificationReport report = overdueNotificationService.run();
+
+        assertEquals("COMPLETED", report.getStatus());
+        assertEquals(1 + 2 + 3 + 4 + 4, report.getOverdueLoans());
+        assertEquals(4, report.getDigestsQueued());
+        assertEquals(1, report.getUsersWithoutEmail());
+        assertEquals(0, smtp.getReceivedMessages().length);
+
+        assertEquals(4, emailDispatcher.drain());
+
+        MimeMessage[] received = smtp.getReceivedMessages();
+        assertEquals(4, received.length);
+        Map<String, String> bodies = Arrays.stream(received).collect(Collectors.toMap(
+                message -> recipient(message), GreenMailUtil::getBody));
+        for (int u = 0; u < 4; u++) {
+            String body = bodies.get("u" + (u + 1) + "@example.com");
+            for (int round = 0; round <= u; round++) {
+                assertTrue(body.contains("Book " + u + "-" + round), body);
+            }
+            assertFalse(body.contains("Returned"));
+            assertFalse(body.contains("Not yet due"));
+        }
+        assertSame(report.getFinishedAt(), overdueNotificationService.getLastReport().getFinishedAt());
+    }
+
+    private static String recipient(MimeMessage message) {
+        try {
+            return message.getAllRecipients()[0].toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private User saveUser(String username, String email) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setRole("ROLE_EMPLOYEE");
+        return userRepository.save(user);
+    }
+
+    private void saveLoan(User user, String title, int dueInDays, boolean returned) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setTotalCopies(1);
+        book.setAvailableCopies(0);
+        Loan loan = new Loan();
+        loan.setBook(bookRepository.save(book));
+        loan.setUser(user);
+        loan.setLoanDate(LocalDateTime.now().minusDays(10));
+        loan.setDueDate(LocalDateTime.now().plusDays(dueInDays));
+        loan.setReturnDate(returned ? LocalDateTime.now() : null);
+        loanRepository.save(loan);
+    }
+}
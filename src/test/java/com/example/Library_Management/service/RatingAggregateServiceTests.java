@@ -0,0 +1,73 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.repository.RatingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RatingAggregateServiceTests {
+
+    private RatingRepository ratingRepository;
+    private RatingAggregateService aggregates;
+
+    @BeforeEach
+    void setUp() {
+        ratingRepository = mock(RatingRepository.class);
+        aggregates = new RatingAggregateService();
+        ReflectionTestUtils.setField(aggregates, "ratingRepository", ratingRepository);
+        ReflectionTestUtils.setField(aggregates, "popularBooksService", new PopularBooksService());
+    }
+
+    @Test
+    void rebuildsFromGroupedCounts() {
+        when(ratingRepository.aggregateByBook()).thenReturn(List.of(
+                new Object[]{1L, 4L, 14L},
+                new Object[]{2L, 1L, 0L}));
+
+        assertEquals(2, aggregates.rebuild());
+        assertEquals(3.5, aggregates.getAverage(1L));
+        assertEquals(0.0, aggregates.getAverage(2L));
+        assertNull(aggregates.getAverage(3L));
+        assertEquals(2, aggregates.getAverages().size());
+    }
+
+    @Test
+    void tracksInsertsReplacementsAndRemovals() {
+        aggregates.recordRating(7L, 4);
+        aggregates.recordRating(7L, 2);
+        assertEquals(3.0, aggregates.getAverage(7L));
+
+        aggregates.replaceRating(7L, 4, 1);
+        assertEquals(1.5, aggregates.getAverage(7L));
+        assertEquals(2, aggregates.getRatingCount(7L));
+
+        aggregates.removeBook(7L);
+        assertNull(aggregates.getAverage(7L));
+    }
+
+    @Test
+    void refreshReplacesOneBookFromTheTable() {
+        aggregates.recordRating(7L, 4);
+        when(ratingRepository.aggregateForBook(7L)).thenReturn(List.<Object[]>of(new Object[]{2L, 7L}));
+
+        aggregates.refreshBook(7L);
+
+        assertEquals(2, aggregates.getRatingCount(7L));
+        assertEquals(3.5, aggregates.getAverage(7L));
+    }
+
+    @Test
+    void concurrentUpdatesKeepCountAndSumConsistent() {
+        IntStream.range(0, 100_000).parallel().forEach(i -> aggregates.recordRating(9L, i % 2 == 0 ? 10 : 0));
+
+        assertEquals(100_000, aggregates.getRatingCount(9L));
+        assertEquals(5.0, aggregates.getAverage(9L));
+    }
+}
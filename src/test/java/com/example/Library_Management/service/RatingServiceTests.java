@@ -0,0 +1,137 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.model.Book;
+import com.example.Library_Management.model.Rating;
+import com.example.Library_Management.model.User;
+import com.example.Library_Management.repository.BookRepository;
+import com.example.Library_Management.repository.RatingRepository;
+import com.example.Library_Management.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// H2 has no ON CONFLICT DO UPDATE, so the upsert statement itself is stubbed; the constraint and finders are real
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(RatingService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RatingServiceTests {
+
+    @Autowired
+    private RatingService ratingService;
+
+    @MockitoSpyBean
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private BookService bookService;
+
+    @MockitoBean
+    private RatingAggregateService ratingAggregateService;
+
+    @MockitoBean
+    private RatingWriteBuffer ratingWriteBuffer;
+
+    private Book book;
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        book = bookRepository.save(new Book(null, "Dune", "Frank Herbert", "9780441013593", 1965, "Ace", 3, 3));
+        alice = saveUser("alice");
+        bob = saveUser("bob");
+        when(bookService.getBookById(book.getId())).thenReturn(book);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ratingRepository.deleteAll();
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void oneRatingPerUserAndBook() {
+        ratingRepository.save(new Rating(null, book, alice, 4));
+        ratingRepository.save(new Rating(null, book, bob, 2));
+        // Imported ratings have no user and never clash
+        ratingRepository.save(new Rating(null, book, null, 5));
+        ratingRepository.save(new Rating(null, book, null, 5));
+
+        assertThrows(DataIntegrityViolationException.class, () -> ratingRepository.save(new Rating(null, book, alice, 1)));
+        assertEquals(4, ratingService.getRatingsForBook(book.getId()).size());
+        assertEquals(4, ratingService.getBookRating(alice.getId(), book.getId()).orElseThrow().getRating());
+        assertTrue(ratingService.getBookRating(alice.getId(), -1L).isEmpty());
+    }
+
+    @Test
+    void firstRatingIsRecordedAndLaterOnesReplaceIt() {
+        doReturn(List.<Object[]>of(new Object[]{10L, 4, null, true}))
+                .when(ratingRepository).upsert(alice.getId(), book.getId(), 4);
+        Rating rating = ratingService.rateBook(alice.getId(), book.getId(), 4);
+        assertEquals(10L, rating.getId());
+        assertEquals(book, rating.getBook());
+        verify(ratingAggregateService).recordRating(book.getId(), 4);
+
+        doReturn(List.<Object[]>of(new Object[]{10L, 2, 4, false}))
+                .when(ratingRepository).upsert(alice.getId(), book.getId(), 2);
+        ratingService.rateBook(alice.getId(), book.getId(), 2);
+        verify(ratingAggregateService).replaceRating(book.getId(), 4, 2);
+        verify(ratingAggregateService, never()).refreshBook(any());
+    }
+
+    @Test
+    void losingARaceForTheFirstRatingRefreshesTheAggregate() {
+        doReturn(List.<Object[]>of(new Object[]{11L, 3, null, false}))
+                .when(ratingRepository).upsert(bob.getId(), book.getId(), 3);
+
+        ratingService.rateBook(bob.getId(), book.getId(), 3);
+
+        verify(ratingAggregateService).refreshBook(book.getId());
+        verify(ratingAggregateService, never()).recordRating(any(), anyInt());
+    }
+
+    @Test
+    void bufferedRatingsSkipTheDatabaseAndShowUpAsTheUsersRating() {
+        when(ratingWriteBuffer.isEnabled()).thenReturn(true);
+        when(ratingWriteBuffer.offer(alice.getId(), book.getId(), 5)).thenReturn(true);
+        when(ratingWriteBuffer.pending(alice.getId(), book.getId())).thenReturn(5);
+
+        Rating rating = ratingService.rateBook(alice.getId(), book.getId(), 5);
+
+        assertNull(rating.getId());
+        verify(ratingRepository, never()).upsert(any(), any(), anyInt());
+        verifyNoInteractions(ratingAggregateService);
+        assertEquals(5, ratingService.getBookRating(alice.getId(), book.getId()).orElseThrow().getRating());
+    }
+
+    private User saveUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setRole("ROLE_EMPLOYEE");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.repository.RatingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RatingWriteBufferTests {
+
+    private RatingRepository ratingRepository;
+    private RatingAggregateService ratingAggregateService;
+    private SimpleMeterRegistry meterRegistry;
+    private RatingWriteBuffer buffer;
+    private final List<long[]> writtenUsers = new ArrayList<>();
+    private final List<int[]> writtenRatings = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ratingRepository = mock(RatingRepository.class);
+        ratingAggregateService = mock(RatingAggregateService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        // Every rating is reported as a first rating unless a test says otherwise
+        when(ratingRepository.upsertAll(any(), any(), any())).thenAnswer(invocation -> {
+            long[] userIds = invocation.getArgument(0);
+            long[] bookIds = invocation.getArgument(1);
+            int[] ratings = invocation.getArgument(2);
+            writtenUsers.add(userIds);
+            writtenRatings.add(ratings);
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < userIds.length; i++) {
+                rows.add(new Object[]{bookIds[i], ratings[i], null, true});
+            }
+            return rows;
+        });
+        // A batch larger than the buffer never wakes the flusher, so tests flush by hand
+        buffer = buffer("buffered", 3, 10, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        buffer.shutdown();
+    }
+
+    @Test
+    void repeatedRatingsCollapseIntoTheLatest() {
+        assertTrue(buffer.offer(1L, 10L, 2));
+        assertTrue(buffer.offer(1L, 10L, 4));
+        assertEquals(1, buffer.size());
+        assertEquals(4, buffer.pending(1L, 10L));
+
+        assertEquals(1, buffer.flush());
+        assertArrayEquals(new int[]{4}, writtenRatings.get(0));
+        verify(ratingAggregateService).recordRating(10L, 4);
+        assertEquals(1.0, meterRegistry.get("library.ratings.buffer.collapsed").counter().count());
+        assertNull(buffer.pending(1L, 10L));
+    }
+
+    @Test
+    void fullBufferTurnsNewRatingsAwayButStillCollapses() {
+        assertTrue(buffer.offer(1L, 10L, 1));
+        assertTrue(buffer.offer(2L, 10L, 1));
+        assertTrue(buffer.offer(3L, 10L, 1));
+
+        assertFalse(buffer.offer(4L, 10L, 1));
+        assertTrue(buffer.offer(3L, 10L, 5));
+        assertEquals(1.0, meterRegistry.get("library.ratings.buffer.rejected").counter().count());
+    }
+
+    @Test
+    void flushesInBatchesAndAppliesWhatEachRowReplaced() {
+        doReturn(List.of(new Object[]{10L, 5, 3, false}, new Object[]{11L, 2, null, true}))
+                .doReturn(List.<Object[]>of(new Object[]{12L, 4, null, false}))
+                .when(ratingRepository).upsertAll(any(), any(), any());
+        buffer.offer(1L, 10L, 5);
+        buffer.offer(1L, 11L, 2);
+        buffer.offer(1L, 12L, 4);
+        ReflectionTestUtils.setField(buffer, "batchSize", 2);
+
+        assertEquals(3, buffer.flush());
+
+        verify(ratingRepository, times(2)).upsertAll(any(), any(), any());
+        verify(ratingAggregateService).replaceRating(10L, 3, 5);
+        verify(ratingAggregateService).recordRating(11L, 2);
+        verify(ratingAggregateService).refreshBook(12L);
+    }
+
+    @Test
+    void failedBatchesAreKeptWithoutOverwritingNewerRatings() {
+        doThrow(new RuntimeException("database down")).when(ratingRepository).upsertAll(any(), any(), any());
+        buffer.offer(1L, 10L, 2);
+
+        assertEquals(0, buffer.flush());
+        assertEquals(2, buffer.pending(1L, 10L));
+        verifyNoInteractions(ratingAggregateService);
+    }
+
+    @Test
+    void ratingsOfDeletedBooksAreDroppedRatherThanRetried() {
+        // Book 99 was deleted after it was rated, so the upsert skips its row
+        doReturn(List.<Object[]>of(new Object[]{10L, 2, null, true}))
+                .when(ratingRepository).upsertAll(any(), any(), any());
+        buffer.offer(1L, 10L, 2);
+        buffer.offer(1L, 99L, 4);
+
+        assertEquals(1, buffer.flush());
+        assertEquals(0, buffer.size());
+        assertEquals(1.0, meterRegistry.get("library.ratings.buffer.dropped").counter().count());
+        assertEquals(0, buffer.flush());
+        verify(ratingRepository, times(1)).upsertAll(any(), any(), any());
+    }
+
+    @Test
+    void flushesWhenABatchIsWaitingAndOnShutdown() throws Exception {
+        buffer.shutdown();
+        buffer = buffer("buffered", 3, 2, Duration.ofHours(1));
+        buffer.offer(1L, 10L, 1);
+        buffer.offer(2L, 10L, 2);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (writtenUsers.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, writtenUsers.size());
+
+        buffer.offer(3L, 10L, 3);
+        buffer.shutdown();
+        assertEquals(2, writtenUsers.size());
+        assertArrayEquals(new long[]{3L}, writtenUsers.get(1));
+        assertFalse(buffer.offer(4L, 10L, 4));
+    }
+
+    @Test
+    void syncModeAcceptsNothing() {
+        RatingWriteBuffer sync = buffer("sync", 3, 2, Duration.ofHours(1));
+
+        assertFalse(sync.isEnabled());
+        assertFalse(sync.offer(1L, 10L, 3));
+        sync.shutdown();
+        verifyNoInteractions(ratingRepository);
+    }
+
+    private RatingWriteBuffer buffer(String mode, int capacity, int batchSize, Duration flushInterval) {
+        RatingWriteBuffer created = new RatingWriteBuffer();
+        ReflectionTestUtils.setField(created, "ratingRepository", ratingRepository);
+        ReflectionTestUtils.setField(created, "ratingAggregateService", ratingAggregateService);
+        ReflectionTestUtils.setField(created, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(created, "writeMode", mode);
+        ReflectionTestUtils.setField(created, "capacity", capacity);
+        ReflectionTestUtils.setField(created, "batchSize", batchSize);
+        ReflectionTestUtils.setField(created, "flushInterval", flushInterval);
+        created.init();
+        return created;
+    }
+}
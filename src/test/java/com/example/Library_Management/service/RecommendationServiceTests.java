@@ -0,0 +1,144 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.client.RecommendationClient;
+import com.example.Library_Management.dto.BookCard;
+import com.example.Library_Management.model.Book;
+import com.example.Library_Management.repository.BookRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(RecommendationService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RecommendationServiceTests {
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private RecommendationClient recommendationClient;
+
+    @MockitoBean
+    private BookService bookService;
+
+    @MockitoBean
+    private RatingAggregateService ratingAggregateService;
+
+    @MockitoBean
+    private ContentRecommendationService contentRecommendationService;
+
+    @MockitoBean
+    private PopularBooksService popularBooksService;
+
+    @MockitoBean
+    private AlsoBorrowedService alsoBorrowedService;
+
+    private Statistics statistics;
+    private final List<Book> books = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (int i = 0; i < 12; i++) {
+            books.add(bookRepository.save(new Book(null, "Title " + i, "Author " + i, String.format("97800000000%02d", i),
+                    2000, "Publisher", 3, i % 4)));
+        }
+        when(ratingAggregateService.getAverage(anyLong())).thenReturn(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+        books.clear();
+    }
+
+    @Test
+    void popularBooksAreOneQueryInLeaderboardOrder() {
+        List<Long> ids = List.of(books.get(7).getId(), books.get(2).getId(), -1L, books.get(11).getId());
+        when(popularBooksService.getPopularBookIds(PopularBooksService.Window.ALL)).thenReturn(ids);
+        when(ratingAggregateService.getAverage(books.get(2).getId())).thenReturn(4.5);
+
+        statistics.clear();
+        List<BookCard> cards = recommendationService.getPopularBooks("all");
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(List.of("Title 7", "Title 2", "Title 11"), cards.stream().map(BookCard::getTitle).toList());
+        BookCard second = cards.get(1);
+        assertEquals(books.get(2).getId(), second.getId());
+        assertEquals("Author 2", second.getAuthor());
+        assertEquals(books.get(2).getIsbn(), second.getIsbn());
+        assertEquals(2, second.getAvailableCopies());
+        assertEquals(4.5, second.getAvgRating());
+        assertNull(cards.get(0).getAvgRating());
+    }
+
+    @Test
+    void contentBasedRecommendationsAreResolvedInOneQuery() {
+        Book source = books.get(0);
+        when(bookService.getBookByIsbn(source.getIsbn())).thenReturn(source);
+        when(contentRecommendationService.isReady()).thenReturn(true);
+        when(contentRecommendationService.recommendIds(source.getId(), 8))
+                .thenReturn(List.of(books.get(5).getId(), books.get(3).getId()));
+
+        statistics.clear();
+        List<BookCard> cards = recommendationService.getContentBasedRecommendations(source.getIsbn());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(List.of("Title 5", "Title 3"), cards.stream().map(BookCard::getTitle).toList());
+    }
+
+    @Test
+    void titlesFromThePythonServiceAreResolvedInOneQuery() {
+        Book source = books.get(0);
+        when(bookService.getBookByIsbn(source.getIsbn())).thenReturn(source);
+        when(contentRecommendationService.isReady()).thenReturn(false);
+        when(recommendationClient.getContentBased(source.getIsbn()))
+                .thenReturn(List.of("Title 9", "Unknown", "Title 4", "Title 9"));
+
+        statistics.clear();
+        List<BookCard> cards = recommendationService.getContentBasedRecommendations(source.getIsbn());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(List.of(books.get(9).getId(), books.get(4).getId()), cards.stream().map(BookCard::getId).toList());
+    }
+
+    @Test
+    void alsoBorrowedBooksAreResolvedInOneQuery() {
+        Book source = books.get(1);
+        when(alsoBorrowedService.recommendIds(source.getId(), 5))
+                .thenReturn(List.of(books.get(8).getId(), books.get(6).getId()));
+
+        statistics.clear();
+        List<BookCard> cards = recommendationService.getAlsoBorrowed(source.getId(), 5);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(List.of("Title 8", "Title 6"), cards.stream().map(BookCard::getTitle).toList());
+    }
+}
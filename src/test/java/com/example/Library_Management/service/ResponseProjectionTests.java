@@ -0,0 +1,181 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.dto.CursorPage;
+import com.example.Library_Management.dto.LoanView;
+import com.example.Library_Management.dto.UserView;
+import com.example.Library_Management.model.Book;
+import com.example.Library_Management.model.Loan;
+import com.example.Library_Management.model.User;
+import com.example.Library_Management.repository.BookRepository;
+import com.example.Library_Management.repository.LoanRepository;
+import com.example.Library_Management.repository.UserRepository;
+import com.example.Library_Management.util.JsonStreamer;
+import com.example.Library_Management.util.JwtUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({LoanService.class, UserService.class, ResponseProjectionTests.Beans.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ResponseProjectionTests {
+
+    private static final int LOANS = 40;
+
+    @TestConfiguration
+    static class Beans {
+        @Bean
+        SimpleMeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        BCryptPasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder();
+        }
+
+        @Bean
+        JwtUtil jwtUtil() {
+            return new JwtUtil();
+        }
+    }
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private PopularBooksService popularBooksService;
+
+    @MockitoBean
+    private DueDateScheduler dueDateScheduler;
+
+    @MockitoBean
+    private AlsoBorrowedService alsoBorrowedService;
+
+    @MockitoBean
+    private BookService bookService;
+
+    @MockitoBean
+    private JsonStreamer jsonStreamer;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private Statistics statistics;
+    private User reader;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            User user = new User();
+            user.setUsername("reader" + i);
+            user.setFullName("Reader Number " + i);
+            user.setEmail("reader" + i + "@example.com");
+            user.setPassword("$2a$10$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ01");
+            user.setRole("ROLE_EMPLOYEE");
+            users.add(userRepository.save(user));
+        }
+        reader = users.get(0);
+        for (int i = 0; i < LOANS; i++) {
+            Book book = new Book(null, "Title " + i, "Some Author " + i, "978000000" + i, 1990 + i % 30,
+                    "A Publisher With A Long Name", 5, 4);
+            Loan loan = new Loan();
+            loan.setBook(bookRepository.save(book));
+            loan.setUser(users.get(i % users.size()));
+            loan.setLoanDate(LocalDateTime.now().minusDays(3));
+            loan.setDueDate(LocalDateTime.now().plusDays(4));
+            loanRepository.save(loan);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        loanRepository.deleteAll();
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void loanPageIsOneQueryAndCarriesNoUserSecrets() throws Exception {
+        statistics.clear();
+        CursorPage<LoanView> page = loanService.listLoans("active", null, null, null, null, LOANS);
+
+        assertEquals(LOANS, page.getItems().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        String json = objectMapper.writeValueAsString(page);
+        assertFalse(json.contains("password"));
+        assertFalse(json.contains("$2a$"));
+        assertTrue(json.contains("\"bookTitle\":\"Title 0\""));
+        assertTrue(json.contains("\"username\":\"reader0\""));
+
+        // Well under half of what the same loans cost as serialized entities
+        String entityJson = objectMapper.writeValueAsString(loanRepository.findAll());
+        assertTrue(json.length() * 2 < entityJson.length(), json.length() + " vs " + entityJson.length());
+        assertTrue(json.length() / LOANS < 250, "bytes per loan: " + json.length() / LOANS);
+    }
+
+    @Test
+    void myLoansAreOneQueryThenCached() {
+        statistics.clear();
+        List<LoanView> mine = loanService.getLoansByUser(reader.getId(), "active", null, null, 50).getItems();
+        loanService.getLoansByUser(reader.getId(), "active", null, null, 50);
+
+        assertEquals(LOANS / 4, mine.size());
+        assertTrue(mine.stream().allMatch(loan -> "reader0".equals(loan.getUserUsername())));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void userPageLeavesOutThePasswordHash() throws Exception {
+        statistics.clear();
+        CursorPage<UserView> page = userService.listUsers(null, null, null, 10);
+
+        assertEquals(4, page.getItems().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        String json = objectMapper.writeValueAsString(page);
+        assertFalse(json.contains("password"));
+        assertFalse(json.contains("$2a$"));
+        assertTrue(json.contains("\"fullName\":\"Reader Number 0\""));
+    }
+}
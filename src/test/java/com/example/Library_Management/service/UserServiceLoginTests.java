@@ -0,0 +1,119 @@
+package com.example.Library_Management.service;
+
+import com.example.Library_Management.dto.LoginRequest;
+import com.example.Library_Management.exception.ServiceBusyException;
+import com.example.Library_Management.model.User;
+import com.example.Library_Management.repository.UserRepository;
+import com.example.Library_Management.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class UserServiceLoginTests {
+
+    private UserRepository userRepository;
+    private BCryptPasswordEncoder passwordEncoder;
+    private SimpleMeterRegistry meterRegistry;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        passwordEncoder = mock(BCryptPasswordEncoder.class);
+        meterRegistry = new SimpleMeterRegistry();
+        userService = new UserService();
+        ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userService, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(userService, "jwtUtil", new JwtUtil());
+        ReflectionTestUtils.setField(userService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(userService, "hashThreads", 1);
+        ReflectionTestUtils.setField(userService, "maxQueued", 1);
+        ReflectionTestUtils.setField(userService, "timeoutMillis", 5000L);
+        ReflectionTestUtils.setField(userService, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(userService, "cacheExpireAfterWrite", Duration.ofMinutes(10));
+        userService.init();
+
+        User user = new User();
+        user.setUsername("alice");
+        user.setPassword("hash");
+        user.setRole("ROLE_EMPLOYEE");
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.shutdown();
+    }
+
+    @Test
+    void looksUpNormalizedUsernameAndRecordsBothPhases() throws Exception {
+        when(passwordEncoder.matches("secret1", "hash")).thenReturn(true);
+
+        String token = userService.login(request("  Alice ", "secret1")).get();
+
+        assertEquals("alice", new JwtUtil().verify(token).username());
+        verify(userRepository).findByUsername("alice");
+        verify(userRepository, never()).findAll();
+        assertEquals(1, meterRegistry.get("library.login.lookup").timer().count());
+        assertEquals(1, meterRegistry.get("library.login.hash").timer().count());
+    }
+
+    @Test
+    void wrongPasswordAndUnknownUserFail() {
+        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(false);
+
+        ExecutionException wrong = assertThrows(ExecutionException.class, () -> userService.login(request("alice", "nope1")).get());
+        assertEquals("Invalid username or password", wrong.getCause().getMessage());
+        ExecutionException unknown = assertThrows(ExecutionException.class, () -> userService.login(request("bob", "nope1")).get());
+        assertEquals("Invalid username or password", unknown.getCause().getMessage());
+    }
+
+    @Test
+    void rejectsFastWhenHashingPoolIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(passwordEncoder.matches(any(), any())).thenAnswer(invocation -> {
+            release.await();
+            return true;
+        });
+
+        // One check running and one queued fill the pool; the third is turned away immediately
+        List<CompletableFuture<String>> accepted = new ArrayList<>();
+        accepted.add(userService.login(request("alice", "secret1")));
+        Thread.sleep(100);
+        accepted.add(userService.login(request("alice", "secret1")));
+        CompletableFuture<String> rejected = userService.login(request("alice", "secret1"));
+
+        assertTrue(rejected.isCompletedExceptionally());
+        ExecutionException busy = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(ServiceBusyException.class, busy.getCause());
+        assertEquals(1.0, meterRegistry.get("library.login.rejected").counter().count());
+
+        release.countDown();
+        for (CompletableFuture<String> login : accepted) {
+            assertNotNull(login.get());
+        }
+    }
+
+    private static LoginRequest request(String username, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setUsername(username);
+        request.setPassword(password);
+        return request;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.Library_Management.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token handling in the authentication filter: the legacy sequence of four parses,
+ * a single verifying parse, and the verified-token cache.
+ * <p>
+ * Run with:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.Library_Management.util.JwtUtilBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String secretKey;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void createToken() {
+        jwtUtil = new JwtUtil();
+        secretKey = (String) ReflectionTestUtils.getField(jwtUtil, "SECRET_KEY");
+        token = jwtUtil.generateToken(1L, "alice", "ROLE_EMPLOYEE");
+    }
+
+    /**
+     * What the filter used to do: parse for the username, twice more to validate it and the
+     * expiry, and once more for the role.
+     */
+    @Benchmark
+    public void legacyFourParses(Blackhole bh) {
+        String username = claims().getSubject();
+        bh.consume(claims().getSubject().equals(username) && !claims().getExpiration().before(new Date()));
+        bh.consume(claims().get("role"));
+    }
+
+    @Benchmark
+    public JwtUtil.TokenClaims singleParse() {
+        return jwtUtil.parse(token);
+    }
+
+    @Benchmark
+    public JwtUtil.TokenClaims cachedVerify() {
+        return jwtUtil.verify(token);
+    }
+
+    private Claims claims() {
+        return Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token).getBody();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(JwtUtilBenchmark.class.getSimpleName()).build()).run();
+    }
+}
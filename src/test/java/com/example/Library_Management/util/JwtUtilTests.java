@@ -0,0 +1,40 @@
+package com.example.Library_Management.util;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTests {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+
+    @Test
+    void verifiesOnceAndServesRepeatsFromCache() {
+        String token = jwtUtil.generateToken(1L, "alice", "ROLE_ADMIN");
+
+        JwtUtil.TokenClaims claims = jwtUtil.verify(token);
+        assertEquals("alice", claims.username());
+        assertEquals("ROLE_ADMIN", claims.role());
+        assertSame(claims, jwtUtil.verify(token));
+    }
+
+    @Test
+    void rejectsTamperedMalformedAndExpiredTokens() {
+        String token = jwtUtil.generateToken(1L, "alice", "ROLE_EMPLOYEE");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertNull(jwtUtil.verify(tampered));
+        assertNull(jwtUtil.verify("not.a.token"));
+
+        String expired = Jwts.builder()
+                .setSubject("alice")
+                .setExpiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(SignatureAlgorithm.HS256, (String) ReflectionTestUtils.getField(jwtUtil, "SECRET_KEY"))
+                .compact();
+        assertNull(jwtUtil.verify(expired));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.Library_Management.util;
+
+import com.example.Library_Management.model.Book;
+import com.example.Library_Management.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class KeysetPagingTests {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Duplicate titles check the id tie-breaker
+        for (String title : List.of("Emma", "Dune", "Beloved", "Dune", "Carrie", "Atonement", "Dune")) {
+            Book book = new Book();
+            book.setTitle(title);
+            book.setTotalCopies(1);
+            book.setAvailableCopies(1);
+            bookRepository.save(book);
+        }
+    }
+
+    @Test
+    void pagesCoverEveryRowOnceInSortOrder() {
+        Sort sort = KeysetPaging.sort("-title", Set.of("id", "title"));
+        List<Book> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String position = cursor;
+            Window<Book> window = bookRepository.findBy(Specification.<Book>allOf(List.of()),
+                    query -> query.sortBy(sort).limit(2).scroll(KeysetPaging.position(position, sort)));
+            seen.addAll(window.getContent());
+            cursor = KeysetPaging.nextCursor(window);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(4, pages);
+        assertEquals(List.of("Emma", "Dune", "Dune", "Dune", "Carrie", "Beloved", "Atonement"),
+                seen.stream().map(Book::getTitle).toList());
+        assertEquals(7, seen.stream().map(Book::getId).collect(Collectors.toSet()).size());
+    }
+
+    @Test
+    void rejectsUnknownSortAndMismatchedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetPaging.sort("isbn", Set.of("id", "title")));
+        assertThrows(IllegalArgumentException.class, () -> KeysetPaging.position("not-a-cursor", Sort.by("id")));
+
+        Sort byTitle = KeysetPaging.sort("title", Set.of("id", "title"));
+        Window<Book> window = bookRepository.findBy(Specification.<Book>allOf(List.of()),
+                query -> query.sortBy(byTitle).limit(2).scroll(KeysetPaging.position(null, byTitle)));
+        String cursor = KeysetPaging.nextCursor(window);
+        assertThrows(IllegalArgumentException.class, () -> KeysetPaging.position(cursor, Sort.by("id")));
+    }
+
+    @Test
+    void streamReturnsAllMatchingRows() {
+        Specification<Book> dune = (root, query, cb) -> cb.equal(root.get("title"), "Dune");
+        try (Stream<Book> books = bookRepository.findBy(dune, query -> query.sortBy(Sort.by("id")).stream())) {
+            assertEquals(3, books.count());
+        }
+    }
+}